@@ -3,16 +3,31 @@ package Bahmi;
 import io.github.bonigarcia.wdm.WebDriverManager;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.edge.EdgeDriverService;
+import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.firefox.GeckoDriverService;
+import org.openqa.selenium.remote.service.DriverService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 public class BaseTest {
-    public static WebDriver driver;
+    //One browser per thread, so data-driven iterations can run in parallel
+    private static final ThreadLocal<BrowserSession> sessionHolder = new ThreadLocal<>();
+    //Every open browser of every thread, so they can be policed and closed from other threads (watchdog, shutdown)
+    private static final Set<BrowserSession> activeSessions = ConcurrentHashMap.newKeySet();
     private static final Logger logger = LoggerFactory.getLogger(BaseTest.class);
 
     private static final String DEFAULT_BROWSER="chrome";
@@ -22,31 +37,67 @@ public class BaseTest {
     //Bahmi's website page is slow, so I used one minute for page load to avoid flakiness
     private  static final long PAGE_LOAD_TIMEOUT_SECOND=60;
 
+    //Watch mode keeps one browser open across runs, so CLOSE_BROWSER only resets the session
+    private static boolean reuseSession=false;
+
+    public static void setReuseSession(boolean reuse){
+        reuseSession=reuse;
+    }
+
+    public static boolean isReuseSession(){
+        return reuseSession;
+    }
+
     public static void initializeDriver(){
-        if(driver==null){
+        BrowserSession current=sessionHolder.get();
+        if(current!=null && current.isKilled()){
+            logger.warn("WebDriver session was killed by the browser watchdog. Replacing it.");
+            quitDriver();
+        }
+        if(sessionHolder.get()==null){
             String browserName=System.getProperty("browser", DEFAULT_BROWSER);
             logger.info("Initializing WebDriver for browser: {}", browserName);
+            WebDriver driver;
+            DriverService service = null;
+            long driverPid;
+
+            //Services are created and started explicitly so the watchdog can kill the driver process, even while the browser starts
+            try {
+                switch(browserName.toLowerCase()){
+                    case "firefox":
+                        setUpDriverBinary(WebDriverManager.firefoxdriver());
+                        GeckoDriverService geckoService = GeckoDriverService.createDefaultService();
+                        service = geckoService;
+                        driverPid = startService(geckoService);
+                        driver= new FirefoxDriver(geckoService, new FirefoxOptions());
+                        break;
+
+                    case "edge":
+                        setUpDriverBinary(WebDriverManager.edgedriver());
+                        EdgeDriverService edgeService = EdgeDriverService.createDefaultService();
+                        service = edgeService;
+                        driverPid = startService(edgeService);
+                        driver = new EdgeDriver(edgeService, new EdgeOptions());
+                        break;
 
-            switch(browserName.toLowerCase()){
-                case "firefox":
-                    WebDriverManager.firefoxdriver().setup();
-                    driver= new FirefoxDriver();
-                    break;
-
-                case "edge":
-                    WebDriverManager.edgedriver().setup();
-                    driver = new EdgeDriver();
-                    break;
-
-                case "chrome":
-                default:
-                    WebDriverManager.chromedriver().setup();
-                    ChromeOptions chromeOptions = new ChromeOptions();
-                    chromeOptions.addArguments("--start-maximized");
-                    chromeOptions.addArguments("--disable-extensions");
-                    chromeOptions.addArguments("--disable-popup-blocking");
-                    driver = new ChromeDriver(chromeOptions);
-                    break;
+                    case "chrome":
+                    default:
+                        setUpDriverBinary(WebDriverManager.chromedriver());
+                        ChromeOptions chromeOptions = new ChromeOptions();
+                        chromeOptions.addArguments("--start-maximized");
+                        chromeOptions.addArguments("--disable-extensions");
+                        chromeOptions.addArguments("--disable-popup-blocking");
+                        ChromeDriverService chromeService = ChromeDriverService.createDefaultService();
+                        service = chromeService;
+                        driverPid = startService(chromeService);
+                        driver = new ChromeDriver(chromeService, chromeOptions);
+                        break;
+                }
+            } catch (RuntimeException e) {
+                if (service != null) {
+                    service.stop(); // Do not leave a driver process behind when the browser failed to start
+                }
+                throw e;
             }
 
             driver.manage().deleteAllCookies();
@@ -54,41 +105,203 @@ public class BaseTest {
 
             driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(IMPLICIT_WAIT_SECONDS));
             driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(PAGE_LOAD_TIMEOUT_SECOND));
+            BrowserSession session = new BrowserSession(driver, driverPid, Thread.currentThread());
+            sessionHolder.set(session);
+            activeSessions.add(session);
+            BrowserWatchdog.ensureStarted();
+            BrowserWatchdog.count(BrowserWatchdog.Event.SESSION_STARTED);
             logger.info("{} browser initialized successfully.", browserName);
 
 
         }
 
+        else if(reuseSession){
+            logger.info("Reusing the open WebDriver session.");
+        }
+
         else{
             logger.warn("WebDriver instance already exists. Not re-initializing");
         }
 
     }
 
+    //WebDriverManager downloads and caches driver binaries; parallel threads must not race on that
+    private static synchronized void setUpDriverBinary(WebDriverManager manager){
+        manager.setup();
+    }
+
+    /**
+     * Starts the driver executable and registers its process with the watchdog before the browser session is created.
+     *
+     * @return PID of the driver executable, or -1 if it could not be found.
+     */
+    private static long startService(DriverService service){
+        try {
+            service.start();
+        } catch (IOException e) {
+            logger.error("Failed to start the driver executable. Error: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to start the driver executable", e);
+        }
+        long driverPid = findDriverPid(service);
+        BrowserWatchdog.driverStarting(driverPid);
+        return driverPid;
+    }
+
+    /**
+     * @return PID of the driver executable started by the service, found by its --port argument, or -1.
+     */
+    private static long findDriverPid(DriverService service){
+        try {
+            Pattern portArgument = Pattern.compile("--port[= ]" + service.getUrl().getPort() + "\\b");
+            return ProcessHandle.current().children()
+                    .filter(process -> process.info().commandLine().map(cmd -> portArgument.matcher(cmd).find()).orElse(false))
+                    .mapToLong(ProcessHandle::pid)
+                    .findFirst()
+                    .orElse(-1);
+        } catch (Exception e) {
+            logger.warn("Could not find the driver process. The watchdog can only quit, not kill, this session. Error: {}", e.getMessage());
+            return -1;
+        }
+    }
+
     public static void quitDriver() {
-        if (driver != null) {
+        BrowserSession session = sessionHolder.get();
+        if (session != null) {
             try {
-                driver.quit();
-                logger.info("WebDriver quit successfully.");
+                if (session.isKilled()) {
+                    logger.info("WebDriver was already killed by the browser watchdog.");
+                } else {
+                    BrowserWatchdog.quitWithTimeout(session);
+                    logger.info("WebDriver quit successfully.");
+                }
             } catch (Exception e) {
                 logger.error("Error while quitting WebDriver: {}", e.getMessage(), e);
             } finally {
-                driver = null;
+                sessionHolder.remove();
+                activeSessions.remove(session);
             }
         } else {
             logger.info("WebDriver instance is already null. No action taken for quitDriver().");
         }
     }
+    /**
+     * Closes the browser for the CLOSE_BROWSER keyword: quits it, or when sessions are reused,
+     * only clears cookies and blanks the page. Use counting and recycling are left to {@link #releaseDriver()}.
+     */
+    public static void closeDriver() {
+        BrowserSession session = sessionHolder.get();
+        if (!reuseSession || session == null || session.isKilled()) {
+            quitDriver();
+            return;
+        }
+        resetSession(session);
+    }
+
+    /**
+     * Ends the current test case's use of the browser. Called once per test case by the runners, never by keywords.
+     * Quits the browser, or when sessions are reused, counts the use, recycles the browser if the watchdog asks for it
+     * and otherwise clears cookies and blanks the page so the next test case starts clean.
+     */
+    public static void releaseDriver() {
+        BrowserSession session = sessionHolder.get();
+        if (!reuseSession || session == null || session.isKilled()) {
+            quitDriver();
+            return;
+        }
+        session.incrementUseCount();
+        BrowserWatchdog.Event recycleReason = BrowserWatchdog.recycleReason(session);
+        if (recycleReason != null) {
+            logger.info("Recycling WebDriver session after {} uses ({} MB resident): {}.", session.getUseCount(),
+                    session.getMemoryBytes() / (1024 * 1024), recycleReason);
+            BrowserWatchdog.count(recycleReason);
+            quitDriver();
+            return;
+        }
+        if (session.isPageReset()) {
+            logger.debug("WebDriver session was already reset by CLOSE_BROWSER.");
+            return;
+        }
+        resetSession(session);
+    }
+
+    private static void resetSession(BrowserSession session) {
+        try {
+            WebDriver driver = session.getDriver();
+            driver.manage().deleteAllCookies();
+            driver.get("about:blank");
+            session.setPageReset(true);
+            logger.info("WebDriver session reset for reuse.");
+        } catch (Exception e) {
+            logger.warn("Failed to reset WebDriver session for reuse, quitting it instead. Error: {}", e.getMessage());
+            quitDriver();
+        }
+    }
+
+    /**
+     * @return true if a driver exists and its browser still answers, e.g. it was not closed by hand.
+     */
+    public static boolean isDriverResponsive() {
+        BrowserSession session = sessionHolder.get();
+        if (session == null || session.isKilled()) return false;
+        try {
+            session.getDriver().getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            logger.warn("WebDriver session is not responding: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Quits the browsers of all threads. Meant for shutdown; threads still using them will fail.
+     */
+    public static void quitAllDrivers() {
+        for (BrowserSession session : activeSessions) {
+            try {
+                if (!session.isKilled()) {
+                    BrowserWatchdog.quitWithTimeout(session);
+                }
+            } catch (Exception e) {
+                logger.error("Error while quitting WebDriver: {}", e.getMessage(), e);
+            }
+            activeSessions.remove(session);
+        }
+        sessionHolder.remove();
+    }
+
+    /**
+     * @return The current thread's browser session, or null if none is open.
+     */
+    public static BrowserSession currentSession() {
+        return sessionHolder.get();
+    }
+
+    /**
+     * @return true if the current thread's browser was killed by the watchdog and not yet replaced.
+     */
+    public static boolean isSessionKilled() {
+        BrowserSession session = sessionHolder.get();
+        return session != null && session.isKilled();
+    }
+
+    static Collection<BrowserSession> activeSessions() {
+        return Collections.unmodifiableSet(activeSessions);
+    }
+
     public static WebDriver getDriver() {
+        BrowserSession session = sessionHolder.get();
+        WebDriver driver = session == null ? null : session.getDriver();
         if (driver == null) {
             logger.info("WebDriver instance is null. It needs to be initialized before use.");
             throw new IllegalStateException("WebDriver instance is null. Please call initializeDriver() first.");
         }
+        session.setPageReset(false); // Handed out for use, so it must be reset again at the end of the test case
         return driver;
     }
 
     public static WebDriver checkDriver(){
-        return driver;
+        BrowserSession session = sessionHolder.get();
+        return session == null ? null : session.getDriver();
     }
 
     public static void navigateToUrl(String url) {
@@ -0,0 +1,63 @@
+package Bahmi;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * A browser opened by {@link BaseTest} for one thread, with what {@link BrowserWatchdog} needs to police it:
+ * the driver process, the number of uses and the last memory sample.
+ * Case and step budgets are tracked separately, per thread, by {@link RunningCase}.
+ */
+public class BrowserSession {
+
+    private final WebDriver driver;
+    private final long driverPid;
+    private final Thread owner;
+    private int useCount;
+    private boolean pageReset; // Cookies cleared and page blanked, and not handed out again since
+
+    // Written by the watchdog thread, read by the owner thread
+    private volatile BrowserWatchdog.Event killReason;
+    private volatile long memoryBytes = -1;
+
+    /**
+     * @param driverPid PID of the driver executable (chromedriver etc.), or -1 if it could not be found.
+     */
+    BrowserSession(WebDriver driver, long driverPid, Thread owner) {
+        this.driver = driver;
+        this.driverPid = driverPid;
+        this.owner = owner;
+    }
+
+    public WebDriver getDriver() { return driver; }
+    public long getDriverPid() { return driverPid; }
+    public Thread getOwner() { return owner; }
+    public int getUseCount() { return useCount; }
+    public boolean isKilled() { return killReason != null; }
+    boolean isPageReset() { return pageReset; }
+
+    /**
+     * @return Why the watchdog killed this session, or null if it was not killed.
+     */
+    public BrowserWatchdog.Event getKillReason() { return killReason; }
+
+    /**
+     * @return Resident memory of the driver and browser processes at the last sample, or -1 if unknown.
+     */
+    public long getMemoryBytes() { return memoryBytes; }
+
+    void incrementUseCount() {
+        useCount++;
+    }
+
+    void setPageReset(boolean pageReset) {
+        this.pageReset = pageReset;
+    }
+
+    void markKilled(BrowserWatchdog.Event reason) {
+        killReason = reason;
+    }
+
+    void setMemoryBytes(long memoryBytes) {
+        this.memoryBytes = memoryBytes;
+    }
+}
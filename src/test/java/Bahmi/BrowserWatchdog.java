@@ -0,0 +1,343 @@
+package Bahmi;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Background thread that protects a run from hung or bloated browsers.
+ * <ul>
+ *     <li>Kills the browser of a test case or step that runs past its wall-clock budget, including while the
+ *     browser is still starting; the blocked call then fails and {@link BaseTest#initializeDriver()} opens
+ *     a replacement for the next test case.</li>
+ *     <li>Bounds {@code quit()}, force-killing the driver process tree when the browser does not close in time.</li>
+ *     <li>Samples the resident memory of each browser's process tree, so {@link BaseTest#releaseDriver()}
+ *     recycles a reused session that grew too large or was used too often.</li>
+ * </ul>
+ * Budgets and thresholds are system properties; 0 disables the corresponding check.
+ */
+public class BrowserWatchdog {
+
+    private static final Logger logger = LoggerFactory.getLogger(BrowserWatchdog.class);
+
+    private static final long CASE_BUDGET_SECONDS = Long.getLong("watchdog.caseBudgetSeconds", 1800);
+    private static final long STEP_BUDGET_SECONDS = Long.getLong("watchdog.stepBudgetSeconds", 300);
+    private static final long MAX_MEMORY_MB = Long.getLong("watchdog.maxBrowserMemoryMb", 2048);
+    private static final int MAX_SESSION_USES = Integer.getInteger("watchdog.maxSessionUses", 25);
+    private static final long MEMORY_SAMPLE_SECONDS = Long.getLong("watchdog.memorySampleSeconds", 10);
+    private static final long QUIT_TIMEOUT_SECONDS = Long.getLong("watchdog.quitTimeoutSeconds", 30);
+    private static final long CHECK_INTERVAL_MILLIS = 1000;
+
+    /** Session events counted for the run metrics. */
+    public enum Event {
+        SESSION_STARTED("session started"),
+        KILLED_CASE_BUDGET("case budget exceeded"),
+        KILLED_STEP_BUDGET("step budget exceeded"),
+        RECYCLED_MEMORY("memory limit reached"),
+        RECYCLED_USE_COUNT("use count reached");
+
+        private final String description;
+
+        Event(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private static final Map<Event, AtomicInteger> eventCounts = new EnumMap<>(Event.class);
+    static {
+        for (Event event : Event.values()) {
+            eventCounts.put(event, new AtomicInteger());
+        }
+    }
+
+    private static final Map<Thread, RunningCase> runningCases = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService scheduler;
+    private static long lastMemorySampleNanos;
+    private static boolean memorySamplingUnsupportedLogged;
+
+    private BrowserWatchdog() {
+    }
+
+    /**
+     * Starts the watchdog thread on first use. Called when a case starts and whenever BaseTest opens a browser.
+     */
+    static synchronized void ensureStarted() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "browser-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(BrowserWatchdog::check, CHECK_INTERVAL_MILLIS, CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        logger.info("Browser watchdog started: case budget {}s, step budget {}s, max browser memory {} MB, max session uses {}.",
+                CASE_BUDGET_SECONDS, STEP_BUDGET_SECONDS, MAX_MEMORY_MB, MAX_SESSION_USES);
+    }
+
+    static void count(Event event) {
+        eventCounts.get(event).incrementAndGet();
+    }
+
+    /**
+     * @return Number of times each session event happened during this run.
+     */
+    public static Map<Event, Integer> getEventCounts() {
+        Map<Event, Integer> counts = new EnumMap<>(Event.class);
+        eventCounts.forEach((event, count) -> counts.put(event, count.get()));
+        return counts;
+    }
+
+    /**
+     * Starts the case budget for the current thread. Call it before the browser is initialized,
+     * so a hanging browser startup is covered too.
+     */
+    public static void startCase(String label) {
+        ensureStarted();
+        Thread current = Thread.currentThread();
+        RunningCase previous = runningCases.put(current, new RunningCase(label, current, deadline(CASE_BUDGET_SECONDS)));
+        if (previous != null) {
+            previous.end(); // endCase() was not called for it
+        }
+    }
+
+    /**
+     * Starts the step budget for the current thread's case. Also used to bound browser startup.
+     */
+    public static void startStep() {
+        RunningCase runningCase = runningCases.get(Thread.currentThread());
+        if (runningCase != null) {
+            runningCase.startStep(deadline(STEP_BUDGET_SECONDS));
+        }
+    }
+
+    /**
+     * Ends the current thread's case. Once it returns, the watchdog no longer kills anything for this case,
+     * and any interrupt from an earlier kill has been cleared.
+     */
+    public static void endCase() {
+        RunningCase runningCase = runningCases.remove(Thread.currentThread());
+        if (runningCase != null) {
+            runningCase.end(); // Waits for a kill in progress, whose interrupt is cleared below
+        }
+        // An interrupt from a kill must not leak into the next test case run by this thread
+        Thread.interrupted();
+    }
+
+    /**
+     * @return Why the watchdog killed the browser of the current thread's case, or null if it did not.
+     */
+    public static Event getKillReason() {
+        RunningCase runningCase = runningCases.get(Thread.currentThread());
+        return runningCase == null ? null : runningCase.getKillReason();
+    }
+
+    /**
+     * Registers the driver process started for the current thread's case, so it can be killed
+     * if the browser session hangs while being created.
+     */
+    static void driverStarting(long driverPid) {
+        RunningCase runningCase = runningCases.get(Thread.currentThread());
+        if (runningCase != null) {
+            runningCase.setStartingDriverPid(driverPid);
+        }
+    }
+
+    private static long deadline(long budgetSeconds) {
+        return budgetSeconds > 0 ? System.nanoTime() + TimeUnit.SECONDS.toNanos(budgetSeconds) : 0;
+    }
+
+    /**
+     * @return The reason to recycle the session between test cases, or null to keep using it.
+     */
+    static Event recycleReason(BrowserSession session) {
+        if (MAX_SESSION_USES > 0 && session.getUseCount() >= MAX_SESSION_USES) {
+            return Event.RECYCLED_USE_COUNT;
+        }
+        if (MAX_MEMORY_MB > 0 && session.getMemoryBytes() > MAX_MEMORY_MB * 1024 * 1024) {
+            return Event.RECYCLED_MEMORY;
+        }
+        return null;
+    }
+
+    private static void check() {
+        try {
+            for (RunningCase runningCase : runningCases.values()) {
+                // Same lock as RunningCase.end(), so a case that ended after being read above is not killed
+                synchronized (runningCase) {
+                    if (runningCase.isEnded() || runningCase.getKillReason() != null) {
+                        continue;
+                    }
+                    long now = System.nanoTime();
+                    long caseDeadline = runningCase.getCaseDeadlineNanos();
+                    long stepDeadline = runningCase.getStepDeadlineNanos();
+                    if (caseDeadline != 0 && now - caseDeadline > 0) {
+                        kill(runningCase, Event.KILLED_CASE_BUDGET);
+                    } else if (stepDeadline != 0 && now - stepDeadline > 0) {
+                        kill(runningCase, Event.KILLED_STEP_BUDGET);
+                    }
+                }
+            }
+            long now = System.nanoTime();
+            if (MAX_MEMORY_MB > 0 && now - lastMemorySampleNanos > TimeUnit.SECONDS.toNanos(MEMORY_SAMPLE_SECONDS)) {
+                lastMemorySampleNanos = now;
+                for (BrowserSession session : BaseTest.activeSessions()) {
+                    session.setMemoryBytes(sampleMemory(session));
+                }
+            }
+        } catch (RuntimeException e) {
+            // Never let one bad check stop the scheduler
+            logger.error("Browser watchdog check failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Kills the browser and driver processes of a stuck case and interrupts its thread,
+     * so the blocked WebDriver call or wait fails instead of hanging.
+     * Called while holding the case's lock.
+     */
+    private static void kill(RunningCase runningCase, Event reason) {
+        runningCase.setKillReason(reason);
+        count(reason);
+        BrowserSession session = sessionOf(runningCase.getOwner());
+        logger.error("Browser watchdog: test case '{}' exceeded its {} budget{}. Killing its browser.", runningCase.getLabel(),
+                reason == Event.KILLED_CASE_BUDGET ? "case" : "step", session == null ? " with no browser session open" : "");
+
+        long driverPid = session != null ? session.getDriverPid() : runningCase.getStartingDriverPid();
+        if (session != null) {
+            session.markKilled(reason);
+        }
+        if (!killProcessTree(driverPid) && session != null) {
+            // Without the process tree, ask the driver to quit; done on its own thread as it may hang too
+            Thread quitter = new Thread(() -> {
+                try {
+                    session.getDriver().quit();
+                } catch (Exception e) {
+                    logger.warn("Error while quitting killed WebDriver: {}", e.getMessage());
+                }
+            }, "browser-watchdog-quit");
+            quitter.setDaemon(true);
+            quitter.start();
+        }
+        runningCase.getOwner().interrupt();
+    }
+
+    private static BrowserSession sessionOf(Thread owner) {
+        for (BrowserSession session : BaseTest.activeSessions()) {
+            if (session.getOwner() == owner) {
+                return session;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return false if the process is unknown or already gone.
+     */
+    private static boolean killProcessTree(long pid) {
+        Optional<ProcessHandle> process = pid > 0 ? ProcessHandle.of(pid) : Optional.empty();
+        if (process.isEmpty()) {
+            return false;
+        }
+        process.get().descendants().forEach(ProcessHandle::destroyForcibly);
+        process.get().destroyForcibly();
+        return true;
+    }
+
+    /**
+     * Quits the session's driver, waiting at most watchdog.quitTimeoutSeconds before force-killing
+     * its process tree, so a hung browser cannot block teardown.
+     */
+    static void quitWithTimeout(BrowserSession session) throws Exception {
+        FutureTask<Void> quit = new FutureTask<>(() -> {
+            session.getDriver().quit();
+            return null;
+        });
+        Thread quitter = new Thread(quit, "webdriver-quit");
+        quitter.setDaemon(true);
+        quitter.start();
+        try {
+            if (QUIT_TIMEOUT_SECONDS > 0) {
+                quit.get(QUIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } else {
+                quit.get();
+            }
+        } catch (TimeoutException e) {
+            logger.error("WebDriver did not quit within {}s. Killing its processes.", QUIT_TIMEOUT_SECONDS);
+            killProcessTree(session.getDriverPid());
+        } catch (InterruptedException e) {
+            logger.warn("Interrupted while quitting WebDriver. Killing its processes.");
+            killProcessTree(session.getDriverPid());
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * @return Sum of the resident memory of the driver process and its descendants, or -1 if unknown.
+     * Reads /proc, so it only works on Linux.
+     */
+    private static long sampleMemory(BrowserSession session) {
+        if (session.getDriverPid() <= 0) {
+            return -1;
+        }
+        if (!Files.isDirectory(Paths.get("/proc/self"))) {
+            if (!memorySamplingUnsupportedLogged) {
+                memorySamplingUnsupportedLogged = true;
+                logger.warn("Browser memory sampling needs /proc (Linux). Only use-count recycling is active.");
+            }
+            return -1;
+        }
+        Optional<ProcessHandle> driverProcess = ProcessHandle.of(session.getDriverPid());
+        if (driverProcess.isEmpty()) {
+            return -1;
+        }
+        List<ProcessHandle> processes = driverProcess.get().descendants().collect(Collectors.toCollection(ArrayList::new));
+        processes.add(driverProcess.get());
+        long total = 0;
+        for (ProcessHandle process : processes) {
+            total += residentBytes(process.pid());
+        }
+        return total;
+    }
+
+    private static long residentBytes(long pid) {
+        Path status = Paths.get("/proc", String.valueOf(pid), "status");
+        try {
+            for (String line : Files.readAllLines(status, StandardCharsets.UTF_8)) {
+                if (line.startsWith("VmRSS:")) {
+                    // Format: "VmRSS:    123456 kB"
+                    String[] parts = line.trim().split("\\s+");
+                    return Long.parseLong(parts[1]) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // The process may have exited between listing and reading
+        }
+        return 0;
+    }
+}
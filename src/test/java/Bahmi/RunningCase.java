@@ -0,0 +1,65 @@
+package Bahmi;
+
+/**
+ * A test case being policed by {@link BrowserWatchdog}, from before its browser is started until it ends.
+ * Kept per thread rather than per {@link BrowserSession}, so browser startup is covered too.
+ * The watchdog kills and {@link BrowserWatchdog#endCase()} ends while holding this object's lock,
+ * so a case that already ended is never killed and a kill's interrupt cannot outlive its case.
+ */
+class RunningCase {
+
+    private final String label;
+    private final Thread owner;
+    private final long caseDeadlineNanos;
+
+    // Written by the owner thread, read by the watchdog thread
+    private volatile long stepDeadlineNanos;
+    private volatile long startingDriverPid = -1;
+
+    // Written by the watchdog thread, read by the owner thread
+    private volatile BrowserWatchdog.Event killReason;
+
+    private boolean ended; // Guarded by this
+
+    /**
+     * @param caseDeadlineNanos System.nanoTime() deadline, or 0 for no budget.
+     */
+    RunningCase(String label, Thread owner, long caseDeadlineNanos) {
+        this.label = label;
+        this.owner = owner;
+        this.caseDeadlineNanos = caseDeadlineNanos;
+    }
+
+    String getLabel() { return label; }
+    Thread getOwner() { return owner; }
+    long getCaseDeadlineNanos() { return caseDeadlineNanos; }
+    long getStepDeadlineNanos() { return stepDeadlineNanos; }
+    long getStartingDriverPid() { return startingDriverPid; }
+    BrowserWatchdog.Event getKillReason() { return killReason; }
+
+    void startStep(long deadlineNanos) {
+        stepDeadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @param pid PID of the driver executable started for this case, before its browser session exists.
+     */
+    void setStartingDriverPid(long pid) {
+        startingDriverPid = pid;
+    }
+
+    void setKillReason(BrowserWatchdog.Event reason) {
+        killReason = reason;
+    }
+
+    synchronized void end() {
+        ended = true;
+    }
+
+    /**
+     * Must be called while holding this object's lock.
+     */
+    boolean isEnded() {
+        return ended;
+    }
+}
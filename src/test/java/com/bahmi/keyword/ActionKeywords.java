@@ -12,16 +12,18 @@ import java.time.Duration;
 public class ActionKeywords {
 
     private static final Logger logger = LoggerFactory.getLogger(ActionKeywords.class);
-    public static WebDriver driver;
-    private static WebDriverWait wait;
+    // Per thread, matching BaseTest, so parallel iterations do not share a browser
+    private static final ThreadLocal<WebDriver> driverHolder = new ThreadLocal<>();
+    private static final ThreadLocal<WebDriverWait> waitHolder = new ThreadLocal<>();
 
     private static final long EXPLICIT_WAIT_SECONDS = 20;
 
     public static void setDriver(WebDriver webDriver) {
-        driver = webDriver;
-        if (driver != null) {
-            wait = new WebDriverWait(driver, Duration.ofSeconds(EXPLICIT_WAIT_SECONDS));
+        driverHolder.set(webDriver);
+        if (webDriver != null) {
+            waitHolder.set(new WebDriverWait(webDriver, Duration.ofSeconds(EXPLICIT_WAIT_SECONDS)));
         } else {
+            waitHolder.remove();
             logger.error("WebDriver provided to ActionKeywords is null. Keywords will fail.");
         }
     }
@@ -38,6 +40,7 @@ public class ActionKeywords {
         }
     }
 
+    @Keyword(requiresData = true)
     public static void NAVIGATE_TO_URL(String locatorStrategy,String locatorValue,String url) {
         try {
             BaseTest.navigateToUrl(url); // Using the method from BaseTest
@@ -48,11 +51,12 @@ public class ActionKeywords {
         }
     }
 
+    @Keyword(requiresLocator = true, requiresData = true)
     public static void INPUT_TEXT(String locatorStrategy, String locatorValue, String textToInput) {
         try {
             WebElement element = findElement(locatorStrategy, locatorValue);
             if (element != null) {
-                wait.until(ExpectedConditions.visibilityOf(element));
+                waitFor().until(ExpectedConditions.visibilityOf(element));
                 element.clear();
                 element.sendKeys(textToInput);
                 logger.info("Keyword INPUT_TEXT: Entered '{}' into element located by {}='{}'", textToInput, locatorStrategy, locatorValue);
@@ -67,11 +71,12 @@ public class ActionKeywords {
         }
     }
 
+    @Keyword(requiresLocator = true)
     public static void CLICK_ELEMENT(String locatorStrategy, String locatorValue, String ignoredTestData) { // TestData often ignored for click
         try {
             WebElement element = findElement(locatorStrategy, locatorValue);
             if (element != null) {
-                wait.until(ExpectedConditions.elementToBeClickable(element));
+                waitFor().until(ExpectedConditions.elementToBeClickable(element));
                 element.click();
                 logger.info("Keyword CLICK_ELEMENT: Clicked on element located by {}='{}'", locatorStrategy, locatorValue);
             } else {
@@ -85,11 +90,12 @@ public class ActionKeywords {
         }
     }
 
+    @Keyword(requiresLocator = true, requiresData = true)
     public static void SELECT_BY_VISIBLE_TEXT(String locatorStrategy, String locatorValue, String textToSelect) {
         try {
             WebElement element = findElement(locatorStrategy, locatorValue);
             if (element != null) {
-                wait.until(ExpectedConditions.visibilityOf(element));
+                waitFor().until(ExpectedConditions.visibilityOf(element));
                 Select select = new Select(element);
                 select.selectByVisibleText(textToSelect);
                 logger.info("Keyword SELECT_BY_VISIBLE_TEXT: Selected '{}' from dropdown {}='{}'", textToSelect, locatorStrategy, locatorValue);
@@ -106,19 +112,20 @@ public class ActionKeywords {
 
 
 
+    @Keyword(requiresData = true)
     public static void VERIFY_URL_CONTAINS(String ignoredLocatorStrategy, String ignoredLocatorValue, String expectedUrlSubstring) {
         try {
-            boolean result = wait.until(ExpectedConditions.urlContains(expectedUrlSubstring));
+            boolean result = waitFor().until(ExpectedConditions.urlContains(expectedUrlSubstring));
             if (result) {
-                logger.info("Keyword VERIFY_URL_CONTAINS: Current URL '{}' contains '{}'. Verification PASSED.", driver.getCurrentUrl(), expectedUrlSubstring);
+                logger.info("Keyword VERIFY_URL_CONTAINS: Current URL '{}' contains '{}'. Verification PASSED.", getDriver().getCurrentUrl(), expectedUrlSubstring);
             } else {
-                logger.error("Keyword VERIFY_URL_CONTAINS: Current URL '{}' does NOT contain '{}'. Verification FAILED.", driver.getCurrentUrl(), expectedUrlSubstring);
-                throw new AssertionError("Verification FAILED: URL does not contain '" + expectedUrlSubstring + "'. Current URL: " + driver.getCurrentUrl());
+                logger.error("Keyword VERIFY_URL_CONTAINS: Current URL '{}' does NOT contain '{}'. Verification FAILED.", getDriver().getCurrentUrl(), expectedUrlSubstring);
+                throw new AssertionError("Verification FAILED: URL does not contain '" + expectedUrlSubstring + "'. Current URL: " + getDriver().getCurrentUrl());
             }
         } catch (TimeoutException e) {
             logger.error("Keyword VERIFY_URL_CONTAINS: Timed out waiting for URL to contain '{}'. Current URL: '{}'. Error: {}",
-                    expectedUrlSubstring, driver.getCurrentUrl(), e.getMessage(), e);
-            throw new AssertionError("Verification FAILED (Timeout): URL does not contain '" + expectedUrlSubstring + "'. Current URL: " + driver.getCurrentUrl(), e);
+                    expectedUrlSubstring, getDriver().getCurrentUrl(), e.getMessage(), e);
+            throw new AssertionError("Verification FAILED (Timeout): URL does not contain '" + expectedUrlSubstring + "'. Current URL: " + getDriver().getCurrentUrl(), e);
         } catch (Exception e) {
             logger.error("Failed to execute keyword VERIFY_URL_CONTAINS for expected text '{}'. Error: {}",
                     expectedUrlSubstring, e.getMessage(), e);
@@ -126,9 +133,10 @@ public class ActionKeywords {
         }
     }
 
+    @Keyword(requiresData = true)
     public static void VERIFY_TEXT_PRESENT(String ignoredLocatorStrategy, String ignoredLocatorValue, String textToVerify) {
         try {
-            String pageSource = driver.getPageSource();
+            String pageSource = getDriver().getPageSource();
             if (pageSource.contains(textToVerify)) {
                 logger.info("Keyword VERIFY_TEXT_PRESENT: Text '{}' found on the page. Verification PASSED.", textToVerify);
             } else {
@@ -141,11 +149,12 @@ public class ActionKeywords {
         }
     }
 
+    @Keyword(requiresLocator = true, requiresData = true)
     public static void VERIFY_ELEMENT_TEXT(String locatorStrategy, String locatorValue, String expectedText) {
         try {
             WebElement element = findElement(locatorStrategy, locatorValue);
             if (element != null) {
-                wait.until(ExpectedConditions.visibilityOf(element));
+                waitFor().until(ExpectedConditions.visibilityOf(element));
                 String actualText = element.getText().trim();
                 if (actualText.equals(expectedText.trim())) {
                     logger.info("Keyword VERIFY_ELEMENT_TEXT: Element {}='{}' has text '{}'. Verification PASSED.", locatorStrategy, locatorValue, expectedText);
@@ -169,7 +178,7 @@ public class ActionKeywords {
     // Keyword: CLOSE_BROWSER
     public static void CLOSE_BROWSER(String ignored1, String ignored2, String ignored3) { // Parameters to match signature, but not used
         try {
-            BaseTest.quitDriver(); // Using the method from BaseTest
+            BaseTest.closeDriver(); // Quits the browser, or only resets it when sessions are reused
             logger.info("Keyword CLOSE_BROWSER: Browser closed successfully.");
         } catch (Exception e) {
             logger.error("Failed to execute keyword CLOSE_BROWSER. Error: {}", e.getMessage(), e);
@@ -177,6 +186,7 @@ public class ActionKeywords {
         }
     }
 
+    @Keyword(numericData = true)
     public static void WAIT_FOR_SECONDS(String ignoredLocatorStrategy, String ignoredLocatorValue, String secondsToWaitStr) {
         try {
             long seconds = Long.parseLong(secondsToWaitStr);
@@ -188,6 +198,8 @@ public class ActionKeywords {
         } catch (InterruptedException e) {
             logger.warn("Keyword WAIT_FOR_SECONDS: Thread interrupted during wait. Error: {}", e.getMessage(), e);
             Thread.currentThread().interrupt(); // Preserve interrupt status
+            // Usually the watchdog killing the case; the step must not pass after waiting less than asked
+            throw new IllegalStateException("Keyword WAIT_FOR_SECONDS was interrupted", e);
         } catch (Exception e) {
             logger.error("Failed to execute keyword WAIT_FOR_SECONDS. Error: {}", e.getMessage(), e);
             throw new RuntimeException("Keyword WAIT_FOR_SECONDS failed", e);
@@ -195,19 +207,30 @@ public class ActionKeywords {
     }
 
 
+    /**
+     * @return The driver set for the current thread, or null if none was set.
+     */
+    public static WebDriver getDriver() {
+        return driverHolder.get();
+    }
+
+    private static WebDriverWait waitFor() {
+        return waitHolder.get();
+    }
+
     /**
      * Helper method to find an element based on locator strategy and value.
      * Includes an explicit wait for the element to be present.
      */
     private static WebElement findElement(String locatorStrategy, String locatorValue) {
-        if (driver == null) {
+        if (getDriver() == null) {
             logger.error("WebDriver is null in findElement. Cannot locate element {}='{}'", locatorStrategy, locatorValue);
             throw new IllegalStateException("WebDriver is null. Cannot find element.");
         }
         By locator = getBy(locatorStrategy, locatorValue);
         try {
             // Wait for element to be present in DOM, not necessarily visible or interactable yet
-            return wait.until(ExpectedConditions.presenceOfElementLocated(locator));
+            return waitFor().until(ExpectedConditions.presenceOfElementLocated(locator));
         } catch (TimeoutException e) {
             logger.warn("Timeout waiting for element presence: {}='{}'. Element might not exist or page not fully loaded.", locatorStrategy, locatorValue);
             return null; // Or throw a custom exception
@@ -219,8 +242,9 @@ public class ActionKeywords {
 
     /**
      * Helper method to convert locator strategy string to Selenium By object.
+     * Also used by the pre-flight plan validation to reject unsupported strategies.
      */
-    private static By getBy(String locatorStrategy, String locatorValue) {
+    public static By getBy(String locatorStrategy, String locatorValue) {
         switch (locatorStrategy.toLowerCase()) {
             case "id":
                 return By.id(locatorValue);
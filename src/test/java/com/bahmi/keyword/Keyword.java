@@ -0,0 +1,24 @@
+package com.bahmi.keyword;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Describes which columns of a TestSteps row a keyword method needs.
+ * Read by the pre-flight plan validation, so a missing locator or test data is reported before any browser starts.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Keyword {
+
+    /** LocatorStrategy and LocatorValue must both be filled in. */
+    boolean requiresLocator() default false;
+
+    /** TestData must be filled in. */
+    boolean requiresData() default false;
+
+    /** TestData must be a non-negative whole number, e.g. seconds (implies requiresData). */
+    boolean numericData() default false;
+}
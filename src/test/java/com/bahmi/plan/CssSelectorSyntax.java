@@ -0,0 +1,160 @@
+package com.bahmi.plan;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Structural check of CSS selectors as the browser will receive them through Selenium's By.cssSelector.
+ * Only errors every browser rejects are reported as errors: unbalanced brackets or quotes, empty selectors,
+ * dangling combinators and the jQuery/jsoup-only pseudo-classes such as :contains() and :first. Pseudo-classes this
+ * class does not know are only warnings, as browsers keep adding new ones.
+ */
+class CssSelectorSyntax {
+
+    private static final Set<String> PSEUDO_CLASSES = new HashSet<>(Arrays.asList(
+            "active", "any-link", "autofill", "blank", "checked", "current", "default", "defined", "dir", "disabled",
+            "empty", "enabled", "first-child", "first-of-type", "focus", "focus-visible", "focus-within",
+            "fullscreen", "future", "has", "host", "host-context", "hover", "in-range", "indeterminate", "invalid",
+            "is", "lang", "last-child", "last-of-type", "link", "local-link", "modal", "not", "nth-child",
+            "nth-last-child", "nth-last-of-type", "nth-of-type", "only-child", "only-of-type", "open", "optional",
+            "out-of-range", "past", "paused", "picture-in-picture", "placeholder-shown", "playing", "popover-open",
+            "read-only", "read-write", "required", "root", "scope", "target", "target-within",
+            "user-invalid", "user-valid", "valid", "visited", "where",
+            // Legacy single-colon pseudo-elements
+            "after", "before", "first-letter", "first-line"));
+
+    // Selector extensions of jQuery and jsoup, and the @page-only :first, :left and :right;
+    // browsers throw "not a valid selector" for them
+    private static final Set<String> NON_BROWSER_PSEUDO_CLASSES = new HashSet<>(Arrays.asList(
+            "contains", "containsown", "containsdata", "containswholetext", "containswholeowntext",
+            "matches", "matchesown", "matcheswholetext", "matcheswholeowntext", "matchtext",
+            // jQuery positional
+            "first", "last", "even", "odd", "eq", "gt", "lt",
+            // jQuery form and content
+            "input", "button", "text", "password", "radio", "checkbox", "file", "image", "submit", "reset",
+            "header", "parent", "animated", "selected", "visible", "hidden",
+            // @page only
+            "left", "right"));
+
+    private CssSelectorSyntax() {
+    }
+
+    /**
+     * @param errors   Receives problems that make the browser reject the selector.
+     * @param warnings Receives pseudo-classes and pseudo-elements that are valid syntax but not known here.
+     */
+    static void check(String selector, List<String> errors, List<String> warnings) {
+        if (selector.trim().isEmpty()) {
+            errors.add("Empty CSS selector.");
+            return;
+        }
+        Deque<Character> openBrackets = new ArrayDeque<>();
+        char quote = 0;
+        boolean expectCompound = true; // At the start of the selector, after a comma or after a combinator
+        for (int i = 0; i < selector.length(); i++) {
+            char c = selector.charAt(i);
+            if (c == '\\') {
+                i++; // Escaped character, e.g. #form\:name
+                expectCompound = false;
+                continue;
+            }
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
+            boolean topLevel = openBrackets.isEmpty();
+            switch (c) {
+                case '"':
+                case '\'':
+                    quote = c;
+                    break;
+                case '(':
+                case '[':
+                    openBrackets.push(c);
+                    expectCompound = false;
+                    break;
+                case ')':
+                case ']':
+                    char expected = c == ')' ? '(' : '[';
+                    if (openBrackets.isEmpty() || openBrackets.pop() != expected) {
+                        errors.add("Unbalanced '" + c + "' at position " + (i + 1) + ".");
+                        return;
+                    }
+                    break;
+                case ',':
+                    if (topLevel && expectCompound) {
+                        errors.add("Empty selector before ',' at position " + (i + 1) + ".");
+                        return;
+                    }
+                    if (topLevel) {
+                        expectCompound = true;
+                    }
+                    break;
+                case '>':
+                case '+':
+                case '~':
+                    // Relative selectors like :has(> img) may start with a combinator; top-level ones may not
+                    if (topLevel && expectCompound) {
+                        errors.add("Combinator '" + c + "' at position " + (i + 1) + " has no selector before it.");
+                        return;
+                    }
+                    if (topLevel) {
+                        expectCompound = true;
+                    }
+                    break;
+                case ':':
+                    if (openBrackets.isEmpty() || openBrackets.peek() == '(') {
+                        i = checkPseudo(selector, i, errors, warnings);
+                        if (!errors.isEmpty()) {
+                            return;
+                        }
+                    }
+                    expectCompound = false;
+                    break;
+                default:
+                    if (!Character.isWhitespace(c)) {
+                        expectCompound = false;
+                    }
+                    break;
+            }
+        }
+        if (quote != 0) {
+            errors.add("Unterminated " + quote + " string.");
+        } else if (!openBrackets.isEmpty()) {
+            errors.add("Missing closing bracket for '" + openBrackets.peek() + "'.");
+        } else if (expectCompound) {
+            errors.add("Selector ends with a combinator or ','.");
+        }
+    }
+
+    /**
+     * @return Index of the last character of the pseudo-class or pseudo-element name.
+     */
+    private static int checkPseudo(String selector, int colon, List<String> errors, List<String> warnings) {
+        boolean pseudoElement = colon + 1 < selector.length() && selector.charAt(colon + 1) == ':';
+        int start = pseudoElement ? colon + 2 : colon + 1;
+        int end = start;
+        while (end < selector.length() && (Character.isLetterOrDigit(selector.charAt(end)) || selector.charAt(end) == '-'
+                || selector.charAt(end) == '_')) {
+            end++;
+        }
+        String name = selector.substring(start, end);
+        if (name.isEmpty()) {
+            errors.add("Missing pseudo-class name after ':' at position " + (colon + 1) + ".");
+        } else if (pseudoElement) {
+            warnings.add("Pseudo-element '::" + name + "' never matches an element for Selenium.");
+        } else if (NON_BROWSER_PSEUDO_CLASSES.contains(name.toLowerCase(Locale.ROOT))) {
+            errors.add("':" + name + "' is not a browser CSS pseudo-class (jQuery/jsoup extension or @page only). Use an xpath locator instead.");
+        } else if (!PSEUDO_CLASSES.contains(name.toLowerCase(Locale.ROOT))) {
+            warnings.add("Unknown pseudo-class ':" + name + "'; the browser may reject it.");
+        }
+        return end - 1;
+    }
+}
@@ -0,0 +1,90 @@
+package com.bahmi.plan;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for {@link CssSelectorSyntax}. Run on their own, without a browser or TestSuite.xlsx:
+ * mvn test -Dtestng.suiteXmlFile=src/test/resources/testng-unit.xml
+ */
+public class CssSelectorSyntaxTest {
+
+    @DataProvider
+    public Object[][] validSelectors() {
+        return new Object[][]{
+                {"input:checked"},
+                {"option:checked"},
+                {"input:disabled"},
+                {"button:focus"},
+                {"div:is(.a,.b)"},
+                {"div:has(> img)"},
+                {":has(> img)"},
+                {"ul > li + li ~ li"},
+                {"#a\\:b"},
+                {"[a=']']"},
+                {"a[href*='x,y'], button.primary"},
+                {"li:nth-child(2n+1)"},
+                {"p:first-child"},
+                {"p:first-of-type"}
+        };
+    }
+
+    @DataProvider
+    public Object[][] invalidSelectors() {
+        return new Object[][]{
+                {""},
+                {"a,,b"},
+                {"div >"},
+                {"> div"},
+                {"a,"},
+                {"div[name='x'"},
+                {"div(a]"},
+                {"a[href='x]"},
+                {"a:"},
+                {"a:contains(x)"},
+                // jQuery positional and form pseudo-classes, and the @page-only ones
+                {"p:first"},
+                {"p:last"},
+                {"tr:even"},
+                {"tr:odd"},
+                {"li:eq(1)"},
+                {":input"},
+                {"form :button"},
+                {":header"},
+                {"td:parent"},
+                {"option:selected"},
+                {"div:visible"},
+                {"p:left"},
+                {"p:right"}
+        };
+    }
+
+    @Test(dataProvider = "validSelectors")
+    public void acceptsBrowserSelector(String selector) {
+        List<String> errors = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+        CssSelectorSyntax.check(selector, errors, warnings);
+        Assert.assertEquals(errors, new ArrayList<String>(), "Errors for " + selector);
+        Assert.assertEquals(warnings, new ArrayList<String>(), "Warnings for " + selector);
+    }
+
+    @Test(dataProvider = "invalidSelectors")
+    public void rejectsInvalidSelector(String selector) {
+        List<String> errors = new ArrayList<>();
+        CssSelectorSyntax.check(selector, errors, new ArrayList<>());
+        Assert.assertFalse(errors.isEmpty(), "No error for " + selector);
+    }
+
+    @Test
+    public void warnsAboutUnknownPseudoClass() {
+        List<String> errors = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+        CssSelectorSyntax.check("input:some-future-state", errors, warnings);
+        Assert.assertTrue(errors.isEmpty(), "Errors: " + errors);
+        Assert.assertEquals(warnings.size(), 1, "Warnings: " + warnings);
+    }
+}
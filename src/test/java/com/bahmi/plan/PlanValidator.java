@@ -0,0 +1,158 @@
+package com.bahmi.plan;
+
+import com.bahmi.keyword.ActionKeywords;
+import com.bahmi.keyword.Keyword;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+
+/**
+ * Static checks of the whole test plan, run before any browser is launched.
+ * Binds every keyword to its ActionKeywords method, builds every locator, checks XPath and CSS syntax,
+ * the TestData declared by {@link Keyword} and that every ${column} placeholder was resolved.
+ * All problems are collected so they can be reported at once.
+ */
+public class PlanValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlanValidator.class);
+
+    private final XPath xpath = XPathFactory.newInstance().newXPath();
+
+    /**
+     * @return One message per problem, each prefixed with its sheet and row. Empty if the plan is valid.
+     */
+    public List<String> validate(TestPlan plan) {
+        List<String> problems = new ArrayList<>(plan.getLoadProblems());
+        int stepCount = 0;
+        for (List<TestStep> steps : plan.getAllSteps()) {
+            for (TestStep step : steps) {
+                stepCount++;
+                validateStep(step, problems);
+            }
+        }
+        logger.info("Validated {} test steps: {} problem(s) found.", stepCount, problems.size());
+        return problems;
+    }
+
+    private void validateStep(TestStep step, List<String> problems) {
+        if (!step.hasKeyword()) {
+            return; // Blank keywords are skipped at execution time
+        }
+        if (!validatePlaceholders(step, problems)) {
+            return; // Syntax checks on unresolved values would only repeat the same problem
+        }
+
+        Method method = bindKeyword(step.getKeyword());
+        if (method == null) {
+            problems.add(step.getLocation() + ": Keyword '" + step.getKeyword()
+                    + "' not found in ActionKeywords (expected public static " + step.getKeyword().toUpperCase()
+                    + "(String, String, String)).");
+            return;
+        }
+        step.setKeywordMethod(method);
+
+        Keyword spec = method.getAnnotation(Keyword.class);
+        boolean hasStrategy = !step.getLocatorStrategy().isEmpty();
+        boolean hasValue = !step.getLocatorValue().isEmpty();
+
+        if (spec != null && spec.requiresLocator() && (!hasStrategy || !hasValue)) {
+            problems.add(step.getLocation() + ": Keyword '" + step.getKeyword()
+                    + "' requires both LocatorStrategy and LocatorValue.");
+        } else if (hasStrategy) {
+            validateLocator(step, problems);
+        }
+
+        if (spec != null && (spec.requiresData() || spec.numericData()) && step.getTestData().isEmpty()) {
+            problems.add(step.getLocation() + ": Keyword '" + step.getKeyword() + "' requires TestData.");
+        } else if (spec != null && spec.numericData()) {
+            long value;
+            try {
+                value = Long.parseLong(step.getTestData());
+            } catch (NumberFormatException e) {
+                value = -1;
+            }
+            if (value < 0) {
+                problems.add(step.getLocation() + ": Keyword '" + step.getKeyword()
+                        + "' requires a non-negative whole number as TestData, got '" + step.getTestData() + "'.");
+            }
+        }
+    }
+
+    /**
+     * @return false if LocatorValue or TestData still contains a ${column} placeholder after resolution.
+     */
+    private static boolean validatePlaceholders(TestStep step, List<String> problems) {
+        boolean resolved = true;
+        for (String value : new String[]{step.getLocatorValue(), step.getTestData()}) {
+            Matcher matcher = TestStep.PLACEHOLDER.matcher(value);
+            while (matcher.find()) {
+                resolved = false;
+                problems.add(step.getLocation() + ": Placeholder '" + matcher.group() + "' has no matching column"
+                        + (step.getDataSheetName() != null
+                        ? " in data sheet '" + step.getDataSheetName() + "'."
+                        : " (no DataSheet set for this test case in TestCases)."));
+            }
+        }
+        return resolved;
+    }
+
+    private static Method bindKeyword(String keyword) {
+        try {
+            Method method = ActionKeywords.class.getMethod(keyword.trim().toUpperCase(), String.class, String.class, String.class);
+            return Modifier.isStatic(method.getModifiers()) ? method : null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private void validateLocator(TestStep step, List<String> problems) {
+        String strategy = step.getLocatorStrategy();
+        String value = step.getLocatorValue();
+        try {
+            ActionKeywords.getBy(strategy, value);
+        } catch (IllegalArgumentException e) {
+            problems.add(step.getLocation() + ": " + e.getMessage() + ".");
+            return;
+        }
+
+        switch (strategy.toLowerCase()) {
+            case "xpath":
+                try {
+                    xpath.compile(value);
+                } catch (XPathExpressionException e) {
+                    problems.add(step.getLocation() + ": Malformed XPath '" + value + "'. " + rootMessage(e));
+                }
+                break;
+            case "cssselector":
+            case "css":
+                List<String> errors = new ArrayList<>();
+                List<String> warnings = new ArrayList<>();
+                CssSelectorSyntax.check(value, errors, warnings);
+                for (String error : errors) {
+                    problems.add(step.getLocation() + ": Malformed CSS selector '" + value + "'. " + error);
+                }
+                for (String warning : warnings) {
+                    logger.warn("{}: CSS selector '{}': {}", step.getLocation(), value, warning);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : e.toString();
+    }
+}
@@ -0,0 +1,202 @@
+package com.bahmi.plan;
+
+import com.bahmi.utils.ExcelReader;
+import com.bahmi.utils.Fingerprints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * All test steps of the workbook, read once and grouped by TestCaseID in sheet order.
+ * A test case with a DataSheet in the TestCases sheet is data-driven: its steps are compiled once per data row
+ * into an iteration, with ${column} placeholders already substituted.
+ */
+public class TestPlan {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestPlan.class);
+
+    // Column names from Excel (case-sensitive, ensure they match your Excel file)
+    public static final String COL_TEST_CASE_ID = "TestCaseID";
+    public static final String COL_DATA_SHEET = "DataSheet";
+    public static final String COL_STEP_KEYWORD = "Keyword";
+    public static final String COL_STEP_LOCATOR_STRATEGY = "LocatorStrategy";
+    public static final String COL_STEP_LOCATOR_VALUE = "LocatorValue";
+    public static final String COL_STEP_TEST_DATA = "TestData";
+    public static final String COL_STEP_DESCRIPTION = "StepDescription";
+
+    // Keyed by upper-cased TestCaseID, as TestCaseIDs are matched case-insensitively
+    private final Map<String, List<TestStep>> stepsByTestCase = new LinkedHashMap<>();
+    private final Map<String, List<List<TestStep>>> iterationsByTestCase = new LinkedHashMap<>();
+    private final List<String> loadProblems = new ArrayList<>();
+
+    private TestPlan() {
+    }
+
+    /**
+     * @param testStepsExcel       TestSteps sheet; data sheets are read from the same workbook.
+     * @param dataSheetsByTestCase Data sheet name per TestCaseID, as returned by {@link #readDataSheets}.
+     */
+    public static TestPlan load(ExcelReader testStepsExcel, String sheetName, Map<String, String> dataSheetsByTestCase) {
+        TestPlan plan = new TestPlan();
+        int rowCount = testStepsExcel.getRowCount();
+        for (int i = 1; i <= rowCount; i++) { // Starts from 1 as row 0 is header
+            String testCaseID = testStepsExcel.getCellData(i, COL_TEST_CASE_ID);
+            if (testCaseID.isEmpty()) {
+                continue;
+            }
+            List<TestStep> steps = plan.stepsByTestCase.computeIfAbsent(testCaseID.toUpperCase(), k -> new ArrayList<>());
+            steps.add(new TestStep(sheetName, i, testCaseID, steps.size() + 1,
+                    testStepsExcel.getCellData(i, COL_STEP_DESCRIPTION),
+                    testStepsExcel.getCellData(i, COL_STEP_KEYWORD),
+                    testStepsExcel.getCellData(i, COL_STEP_LOCATOR_STRATEGY),
+                    testStepsExcel.getCellData(i, COL_STEP_LOCATOR_VALUE),
+                    testStepsExcel.getCellData(i, COL_STEP_TEST_DATA)));
+        }
+        for (Map.Entry<String, String> entry : dataSheetsByTestCase.entrySet()) {
+            plan.compileIterations(entry.getKey(), testStepsExcel, entry.getValue());
+        }
+        logger.info("Loaded test plan from sheet '{}': {} test cases, {} of them data-driven.",
+                sheetName, plan.stepsByTestCase.size(), plan.iterationsByTestCase.size());
+        return plan;
+    }
+
+    /**
+     * @return Data sheet name per upper-cased TestCaseID, for test cases with a non-blank DataSheet column.
+     * Empty if the optional DataSheet column is missing.
+     */
+    public static Map<String, String> readDataSheets(ExcelReader testCasesExcel) {
+        Map<String, String> dataSheets = new LinkedHashMap<>();
+        if (!testCasesExcel.hasColumn(COL_DATA_SHEET)) {
+            return dataSheets;
+        }
+        for (int i = 1; i <= testCasesExcel.getRowCount(); i++) {
+            String testCaseID = testCasesExcel.getCellData(i, COL_TEST_CASE_ID);
+            String dataSheet = testCasesExcel.getCellData(i, COL_DATA_SHEET);
+            if (!testCaseID.isEmpty() && !dataSheet.isEmpty()) {
+                dataSheets.put(testCaseID.toUpperCase(), dataSheet);
+            }
+        }
+        return dataSheets;
+    }
+
+    /**
+     * Resolves the placeholders of the test case's steps once for every data row of the sheet.
+     */
+    private void compileIterations(String testCaseKey, ExcelReader workbookExcel, String dataSheetName) {
+        List<TestStep> templates = stepsByTestCase.get(testCaseKey);
+        if (templates == null) {
+            return; // No steps; reported at execution time like any other test case without steps
+        }
+        ExcelReader dataExcel;
+        try {
+            dataExcel = workbookExcel.forSheet(dataSheetName);
+        } catch (RuntimeException e) {
+            loadProblems.add("TestCases (" + templates.get(0).getTestCaseID() + "): Data sheet '" + dataSheetName
+                    + "' could not be read. " + e.getMessage());
+            return;
+        }
+        List<List<TestStep>> iterations = new ArrayList<>();
+        for (int i = 1; i <= dataExcel.getRowCount(); i++) {
+            Map<String, String> dataRow = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            dataRow.putAll(dataExcel.getRowData(i));
+            if (dataRow.values().stream().allMatch(String::isEmpty)) {
+                continue; // Blank rows are not iterations
+            }
+            List<TestStep> resolved = new ArrayList<>(templates.size());
+            for (TestStep template : templates) {
+                resolved.add(template.resolve(dataRow, dataSheetName, i));
+            }
+            iterations.add(resolved);
+        }
+        if (iterations.isEmpty()) {
+            loadProblems.add("TestCases (" + templates.get(0).getTestCaseID() + "): Data sheet '" + dataSheetName
+                    + "' has no data rows.");
+            return;
+        }
+        iterationsByTestCase.put(testCaseKey, iterations);
+    }
+
+    /**
+     * @return Problems found while loading data sheets, reported by {@link PlanValidator}.
+     */
+    public List<String> getLoadProblems() {
+        return Collections.unmodifiableList(loadProblems);
+    }
+
+    /**
+     * @return The steps of the test case in sheet order, or an empty list if it has none.
+     */
+    public List<TestStep> getSteps(String testCaseID) {
+        List<TestStep> steps = stepsByTestCase.get(testCaseID.toUpperCase());
+        return steps == null ? Collections.emptyList() : Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * @param iteration 1-based iteration number, or 0 for the steps as written in TestSteps.
+     * @return The steps to execute for that iteration.
+     */
+    public List<TestStep> getSteps(String testCaseID, int iteration) {
+        if (iteration == 0) {
+            return getSteps(testCaseID);
+        }
+        return Collections.unmodifiableList(iterationsByTestCase.get(testCaseID.toUpperCase()).get(iteration - 1));
+    }
+
+    /**
+     * @return Number of data rows of a data-driven test case, or 0 if it is not data-driven.
+     */
+    public int getIterationCount(String testCaseID) {
+        List<List<TestStep>> iterations = iterationsByTestCase.get(testCaseID.toUpperCase());
+        return iterations == null ? 0 : iterations.size();
+    }
+
+    /**
+     * @return Name used for one iteration in logs, the journal and reports, e.g. REG_001[3].
+     */
+    public static String label(String testCaseID, int iteration) {
+        return iteration == 0 ? testCaseID : testCaseID + "[" + iteration + "]";
+    }
+
+    /**
+     * @return Every list of steps that can be executed: the resolved iterations of data-driven test cases
+     * and the steps as written for all others.
+     */
+    public Collection<List<TestStep>> getAllSteps() {
+        List<List<TestStep>> all = new ArrayList<>();
+        for (Map.Entry<String, List<TestStep>> entry : stepsByTestCase.entrySet()) {
+            List<List<TestStep>> iterations = iterationsByTestCase.get(entry.getKey());
+            if (iterations != null) {
+                all.addAll(iterations);
+            } else {
+                all.add(entry.getValue());
+            }
+        }
+        return all;
+    }
+
+    /**
+     * @return Fingerprint over the resolved steps of one iteration (0 for a test case that is not data-driven).
+     */
+    public String getFingerprint(String testCaseID, int iteration, String... extraValues) {
+        List<String> values = new ArrayList<>();
+        Collections.addAll(values, extraValues);
+        addStepValues(values, getSteps(testCaseID, iteration));
+        return Fingerprints.fingerprint(values);
+    }
+
+    private static void addStepValues(List<String> values, List<TestStep> steps) {
+        for (TestStep step : steps) {
+            values.add(step.getKeyword());
+            values.add(step.getLocatorStrategy());
+            values.add(step.getLocatorValue());
+            values.add(step.getTestData());
+        }
+    }
+}
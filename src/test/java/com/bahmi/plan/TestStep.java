@@ -0,0 +1,121 @@
+package com.bahmi.plan;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One row of the TestSteps sheet. The keyword method is bound once by {@link PlanValidator}
+ * so that execution does not repeat the reflection lookup for every step.
+ * For data-driven test cases, one resolved copy of the step exists per data row (see {@link #resolve}).
+ */
+public class TestStep {
+
+    /** Matches ${column} placeholders in LocatorValue and TestData. */
+    public static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^}]+)}");
+
+    private final String sheetName;
+    private final int rowNum;
+    private final String testCaseID;
+    private final int stepIndex;
+    private final String description;
+    private final String keyword;
+    private final String locatorStrategy;
+    private final String locatorValue;
+    private final String testData;
+    private final String dataSheetName;
+    private final int dataRowNum;
+    private Method keywordMethod;
+
+    /**
+     * @param rowNum    The row number in the sheet (0-based, as used by ExcelReader).
+     * @param stepIndex The 1-based position of the step within its test case.
+     */
+    public TestStep(String sheetName, int rowNum, String testCaseID, int stepIndex, String description,
+                    String keyword, String locatorStrategy, String locatorValue, String testData) {
+        this(sheetName, rowNum, testCaseID, stepIndex, description, keyword, locatorStrategy, locatorValue, testData, null, 0);
+    }
+
+    private TestStep(String sheetName, int rowNum, String testCaseID, int stepIndex, String description,
+                     String keyword, String locatorStrategy, String locatorValue, String testData,
+                     String dataSheetName, int dataRowNum) {
+        this.sheetName = sheetName;
+        this.rowNum = rowNum;
+        this.testCaseID = testCaseID;
+        this.stepIndex = stepIndex;
+        this.description = description;
+        this.keyword = keyword;
+        this.locatorStrategy = locatorStrategy;
+        this.locatorValue = locatorValue;
+        this.testData = testData;
+        this.dataSheetName = dataSheetName;
+        this.dataRowNum = dataRowNum;
+    }
+
+    /**
+     * Returns a copy of this step with ${column} placeholders replaced by the values of one data row.
+     * Placeholders without a matching column are left as written, so validation can report them.
+     *
+     * @param dataRow    Column name to value; lookups should be case-insensitive.
+     * @param dataRowNum The row number in the data sheet (0-based, as used by ExcelReader).
+     */
+    public TestStep resolve(Map<String, String> dataRow, String dataSheetName, int dataRowNum) {
+        return new TestStep(sheetName, rowNum, testCaseID, stepIndex, description, keyword, locatorStrategy,
+                substitute(locatorValue, dataRow), substitute(testData, dataRow), dataSheetName, dataRowNum);
+    }
+
+    private static String substitute(String template, Map<String, String> dataRow) {
+        if (template.indexOf("${") < 0) {
+            return template;
+        }
+        Matcher matcher = PLACEHOLDER.matcher(template);
+        StringBuffer sb = new StringBuffer();
+        while (matcher.find()) {
+            String value = dataRow.get(matcher.group(1).trim());
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(value != null ? value : matcher.group()));
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    public String getSheetName() { return sheetName; }
+    public int getRowNum() { return rowNum; }
+    public String getTestCaseID() { return testCaseID; }
+    public int getStepIndex() { return stepIndex; }
+    public String getDescription() { return description; }
+    public String getKeyword() { return keyword; }
+    public String getLocatorStrategy() { return locatorStrategy; }
+    public String getLocatorValue() { return locatorValue; }
+    public String getTestData() { return testData; }
+
+    /**
+     * @return The data sheet this step was resolved from, or null if the test case is not data-driven.
+     */
+    public String getDataSheetName() { return dataSheetName; }
+    public int getDataRowNum() { return dataRowNum; }
+
+    /**
+     * @return The bound ActionKeywords method, or null if the keyword is blank or the plan has not been validated.
+     */
+    public Method getKeywordMethod() { return keywordMethod; }
+
+    void setKeywordMethod(Method keywordMethod) {
+        this.keywordMethod = keywordMethod;
+    }
+
+    public boolean hasKeyword() {
+        return keyword != null && !keyword.trim().isEmpty();
+    }
+
+    /**
+     * @return Location as shown in Excel (1-based row number), for error messages.
+     */
+    public String getLocation() {
+        String location = sheetName + " row " + (rowNum + 1) + " (" + testCaseID + ", step " + stepIndex;
+        if (dataSheetName != null) {
+            location += ", data sheet " + dataSheetName + " row " + (dataRowNum + 1);
+        }
+        return location + ")";
+    }
+}
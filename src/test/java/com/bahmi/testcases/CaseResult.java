@@ -0,0 +1,84 @@
+package com.bahmi.testcases;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one execution of a test case, with the timing of every step that ran.
+ */
+public class CaseResult {
+
+    /**
+     * Outcome and duration of a single executed step.
+     */
+    public static class StepResult {
+        private final int stepIndex;
+        private final String description;
+        private final String keyword;
+        private final boolean passed;
+        private final long durationMs;
+
+        StepResult(int stepIndex, String description, String keyword, boolean passed, long durationMs) {
+            this.stepIndex = stepIndex;
+            this.description = description;
+            this.keyword = keyword;
+            this.passed = passed;
+            this.durationMs = durationMs;
+        }
+
+        public int getStepIndex() { return stepIndex; }
+        public String getDescription() { return description; }
+        public String getKeyword() { return keyword; }
+        public boolean isPassed() { return passed; }
+        public long getDurationMs() { return durationMs; }
+    }
+
+    private final String testCaseID;
+    private final List<StepResult> stepResults = new ArrayList<>();
+    private int failedStep;
+    private Throwable failure;
+    private long durationMs;
+
+    CaseResult(String testCaseID) {
+        this.testCaseID = testCaseID;
+    }
+
+    /**
+     * @return A failed result for a test case that could not start, e.g. because the browser did not open.
+     */
+    static CaseResult failedBeforeSteps(String testCaseID, Throwable failure, long durationMs) {
+        CaseResult result = new CaseResult(testCaseID);
+        result.fail(0, failure);
+        result.setDurationMs(durationMs);
+        return result;
+    }
+
+    void addStepResult(StepResult stepResult) {
+        stepResults.add(stepResult);
+    }
+
+    void fail(int failedStep, Throwable failure) {
+        this.failedStep = failedStep;
+        this.failure = failure;
+    }
+
+    void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public String getTestCaseID() { return testCaseID; }
+    public boolean isPassed() { return failure == null; }
+
+    /**
+     * @return 1-based index of the failed step, or 0 if the test case passed or failed before its first step.
+     */
+    public int getFailedStep() { return failedStep; }
+
+    /**
+     * @return The exception thrown by the failed step, or null if the test case passed.
+     */
+    public Throwable getFailure() { return failure; }
+    public long getDurationMs() { return durationMs; }
+    public List<StepResult> getStepResults() { return Collections.unmodifiableList(stepResults); }
+}
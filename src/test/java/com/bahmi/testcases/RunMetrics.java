@@ -0,0 +1,117 @@
+package com.bahmi.testcases;
+
+import Bahmi.BrowserWatchdog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects iteration and step durations of a run and logs throughput and latency percentiles at the end,
+ * so data-driven test cases can double as light load and soak runs. Safe to use from parallel iterations.
+ */
+public class RunMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(RunMetrics.class);
+    private static final double[] PERCENTILES = {50, 90, 95, 99};
+
+    /**
+     * Growable list of durations in milliseconds, with the time window they were recorded in.
+     */
+    static class LatencySeries {
+        private long[] values = new long[64];
+        private int size;
+        private long firstStartNanos = Long.MAX_VALUE;
+        private long lastEndNanos = Long.MIN_VALUE;
+
+        void add(long durationMs, long endNanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = durationMs;
+            firstStartNanos = Math.min(firstStartNanos, endNanos - durationMs * 1_000_000);
+            lastEndNanos = Math.max(lastEndNanos, endNanos);
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * @return Completed entries per second over the window from the first start to the last end.
+         */
+        double throughputPerSecond() {
+            double seconds = (lastEndNanos - firstStartNanos) / 1_000_000_000.0;
+            return seconds > 0 ? size / seconds : 0;
+        }
+
+        /**
+         * @return "p50=.. p90=.. p95=.. p99=.. max=.." using the nearest-rank method.
+         */
+        String describePercentiles() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            StringBuilder sb = new StringBuilder();
+            for (double percentile : PERCENTILES) {
+                int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+                sb.append('p').append((int) percentile).append('=').append(sorted[Math.max(rank, 1) - 1]).append(' ');
+            }
+            return sb.append("max=").append(sorted[sorted.length - 1]).toString();
+        }
+    }
+
+    private final LatencySeries allIterations = new LatencySeries();
+    private final Map<String, LatencySeries> iterationsByTestCase = new LinkedHashMap<>();
+    private final Map<String, LatencySeries> stepsByKeyword = new TreeMap<>();
+    private int passed;
+    private int failed;
+
+    /**
+     * Records one finished iteration (or test case that is not data-driven) and its steps.
+     */
+    public synchronized void record(CaseResult result) {
+        long endNanos = System.nanoTime();
+        allIterations.add(result.getDurationMs(), endNanos);
+        iterationsByTestCase.computeIfAbsent(result.getTestCaseID(), k -> new LatencySeries())
+                .add(result.getDurationMs(), endNanos);
+        for (CaseResult.StepResult step : result.getStepResults()) {
+            stepsByKeyword.computeIfAbsent(step.getKeyword().toUpperCase(), k -> new LatencySeries())
+                    .add(step.getDurationMs(), endNanos);
+        }
+        if (result.isPassed()) {
+            passed++;
+        } else {
+            failed++;
+        }
+    }
+
+    public synchronized void logSummary() {
+        Map<BrowserWatchdog.Event, Integer> sessionEvents = BrowserWatchdog.getEventCounts();
+        logger.info("Browser sessions: {} started, {} killed (case budget {}, step budget {}), {} recycled (memory {}, use count {})",
+                sessionEvents.get(BrowserWatchdog.Event.SESSION_STARTED),
+                sessionEvents.get(BrowserWatchdog.Event.KILLED_CASE_BUDGET) + sessionEvents.get(BrowserWatchdog.Event.KILLED_STEP_BUDGET),
+                sessionEvents.get(BrowserWatchdog.Event.KILLED_CASE_BUDGET), sessionEvents.get(BrowserWatchdog.Event.KILLED_STEP_BUDGET),
+                sessionEvents.get(BrowserWatchdog.Event.RECYCLED_MEMORY) + sessionEvents.get(BrowserWatchdog.Event.RECYCLED_USE_COUNT),
+                sessionEvents.get(BrowserWatchdog.Event.RECYCLED_MEMORY), sessionEvents.get(BrowserWatchdog.Event.RECYCLED_USE_COUNT));
+        if (allIterations.size() == 0) {
+            logger.info("Run metrics: no iterations were executed.");
+            return;
+        }
+        logger.info("Run metrics: {} iterations ({} passed, {} failed), throughput {} iterations/s, latency ms {}",
+                allIterations.size(), passed, failed, String.format("%.2f", allIterations.throughputPerSecond()),
+                allIterations.describePercentiles());
+        for (Map.Entry<String, LatencySeries> entry : iterationsByTestCase.entrySet()) {
+            LatencySeries series = entry.getValue();
+            logger.info("  Test case {}: {} iterations, throughput {} iterations/s, latency ms {}",
+                    entry.getKey(), series.size(), String.format("%.2f", series.throughputPerSecond()),
+                    series.describePercentiles());
+        }
+        for (Map.Entry<String, LatencySeries> entry : stepsByKeyword.entrySet()) {
+            logger.info("  Keyword {}: {} steps, latency ms {}",
+                    entry.getKey(), entry.getValue().size(), entry.getValue().describePercentiles());
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.bahmi.testcases;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * Writes each test case result as soon as it finishes, instead of keeping results in memory until the suite ends:
+ * <ul>
+ *     <li>results.ndjson: one JSON object per line.</li>
+ *     <li>TEST-BahmniKeywordDriven.xml: JUnit XML. The closing tag is rewritten after every test case,
+ *     so the file stays well-formed even if the run is killed.</li>
+ * </ul>
+ * Both files are written unbuffered per record, so everything written survives a JVM crash.
+ */
+public class StreamingResultWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingResultWriter.class);
+
+    private static final String NDJSON_FILE = "results.ndjson";
+    private static final String JUNIT_FILE = "TEST-BahmniKeywordDriven.xml";
+    private static final String JUNIT_FOOTER = "</testsuite>\n";
+
+    private final Path ndjsonPath;
+    private final Path junitPath;
+    private BufferedWriter ndjsonWriter;
+    private RandomAccessFile junitFile;
+
+    /**
+     * @param resultsDir Directory for the result files. Existing files from a previous run are replaced.
+     * @param suiteName  Name of the JUnit test suite.
+     */
+    public StreamingResultWriter(String resultsDir, String suiteName) {
+        Path dir = Paths.get(resultsDir);
+        ndjsonPath = dir.resolve(NDJSON_FILE);
+        junitPath = dir.resolve(JUNIT_FILE);
+        try {
+            Files.createDirectories(dir);
+            ndjsonWriter = Files.newBufferedWriter(ndjsonPath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            junitFile = new RandomAccessFile(junitPath.toFile(), "rw");
+            junitFile.setLength(0);
+            junitFile.write(("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testsuite name=\"" + escapeXml(suiteName)
+                    + "\" timestamp=\"" + Instant.now() + "\">\n" + JUNIT_FOOTER).getBytes(StandardCharsets.UTF_8));
+            logger.info("Streaming results to {} and {}", ndjsonPath, junitPath);
+        } catch (IOException e) {
+            logger.error("Error opening result files in {}. Error: {}", resultsDir, e.getMessage(), e);
+            throw new RuntimeException("Error opening result files in " + resultsDir, e);
+        }
+    }
+
+    /**
+     * Appends one finished test case (or iteration) to both result files.
+     *
+     * @param label Name of the test case run, e.g. REG_TC_001[3] for an iteration.
+     */
+    public synchronized void record(String label, CaseResult result) {
+        if (ndjsonWriter == null) {
+            logger.warn("Result writer is closed. Not recording test case: {}", label);
+            return;
+        }
+        try {
+            ndjsonWriter.write(toJson(label, result));
+            ndjsonWriter.newLine();
+            ndjsonWriter.flush();
+
+            // Overwrite the closing tag with the new test case, then put the closing tag back
+            byte[] footer = JUNIT_FOOTER.getBytes(StandardCharsets.UTF_8);
+            junitFile.seek(junitFile.length() - footer.length);
+            junitFile.write((toJUnitXml(label, result) + JUNIT_FOOTER).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // Losing a result line must not fail the test run itself
+            logger.error("Error writing result of test case {}. Error: {}", label, e.getMessage(), e);
+        }
+    }
+
+    public synchronized void close() {
+        try {
+            if (ndjsonWriter != null) {
+                ndjsonWriter.close();
+            }
+            if (junitFile != null) {
+                junitFile.close();
+            }
+            logger.info("Result files closed: {} and {}", ndjsonPath, junitPath);
+        } catch (IOException e) {
+            logger.error("Error closing result files. Error: {}", e.getMessage(), e);
+        } finally {
+            ndjsonWriter = null;
+            junitFile = null;
+        }
+    }
+
+    private static String toJson(String label, CaseResult result) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"timestamp\":\"").append(Instant.now())
+                .append("\",\"testCaseID\":\"").append(escapeJson(result.getTestCaseID()))
+                .append("\",\"label\":\"").append(escapeJson(label))
+                .append("\",\"thread\":\"").append(escapeJson(Thread.currentThread().getName()))
+                .append("\",\"status\":\"").append(result.isPassed() ? "PASSED" : "FAILED")
+                .append("\",\"failedStep\":").append(result.getFailedStep())
+                .append(",\"durationMs\":").append(result.getDurationMs());
+        if (result.getFailure() != null) {
+            sb.append(",\"failure\":\"").append(escapeJson(String.valueOf(result.getFailure().getMessage()))).append('"');
+        }
+        sb.append(",\"steps\":[");
+        boolean first = true;
+        for (CaseResult.StepResult step : result.getStepResults()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append("{\"index\":").append(step.getStepIndex())
+                    .append(",\"keyword\":\"").append(escapeJson(step.getKeyword()))
+                    .append("\",\"passed\":").append(step.isPassed())
+                    .append(",\"durationMs\":").append(step.getDurationMs()).append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String toJUnitXml(String label, CaseResult result) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("  <testcase classname=\"").append(escapeXml(TestEngine.class.getName()))
+                .append("\" name=\"").append(escapeXml(label))
+                .append("\" time=\"").append(result.getDurationMs() / 1000.0).append('"');
+        Throwable failure = result.getFailure();
+        if (failure == null) {
+            return sb.append("/>\n").toString();
+        }
+        StringWriter stackTrace = new StringWriter();
+        failure.printStackTrace(new PrintWriter(stackTrace));
+        String message = result.getFailedStep() > 0
+                ? "Step " + result.getFailedStep() + ": " + failure.getMessage() : String.valueOf(failure.getMessage());
+        sb.append(">\n    <failure message=\"").append(escapeXml(message))
+                .append("\" type=\"").append(escapeXml(failure.getClass().getName())).append("\">")
+                .append(escapeXml(stackTrace.toString()))
+                .append("</failure>\n  </testcase>\n");
+        return sb.toString();
+    }
+
+    private static String escapeJson(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String escapeXml(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 16);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<': sb.append("&lt;"); break;
+                case '>': sb.append("&gt;"); break;
+                case '&': sb.append("&amp;"); break;
+                case '"': sb.append("&quot;"); break;
+                default:
+                    // Control characters other than tab and newlines are not allowed in XML 1.0
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,125 @@
+package com.bahmi.testcases;
+
+import Bahmi.BrowserWatchdog;
+import com.bahmi.plan.TestStep;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.List;
+
+/**
+ * Runs the steps of one test case against the current ActionKeywords driver.
+ * Shared by the TestNG {@link TestEngine} and the long-running {@link WatchRunner}.
+ */
+public class TestCaseExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestCaseExecutor.class);
+
+    // MDC keys carried by every log line, including the structured JSON log
+    static final String MDC_CASE_ID = "caseId";
+    static final String MDC_STEP = "step";
+
+    private TestCaseExecutor() {
+    }
+
+    /**
+     * Executes the steps in order and stops at the first failing step.
+     * The driver must already be initialized and passed to ActionKeywords.
+     * The caller runs it between {@link BrowserWatchdog#startCase} and {@link BrowserWatchdog#endCase},
+     * so browser startup shares the case budget; each step gets its own step budget.
+     * While a step runs, its index is in the logging MDC as "step"; the caller sets "caseId".
+     *
+     * @param label Name of this run of the test case in logs, e.g. the iteration label.
+     */
+    public static CaseResult execute(String testCaseID, String label, List<TestStep> steps) {
+        CaseResult result = new CaseResult(testCaseID);
+        long caseStartNanos = System.nanoTime();
+        try {
+            executeSteps(testCaseID, steps, result);
+        } finally {
+            MDC.remove(MDC_STEP);
+        }
+        result.setDurationMs(elapsedMillis(caseStartNanos));
+        return result;
+    }
+
+    private static void executeSteps(String testCaseID, List<TestStep> steps, CaseResult result) {
+        for (TestStep step : steps) {
+            String stepDescription = step.getDescription();
+            String keyword = step.getKeyword();
+            MDC.put(MDC_STEP, String.valueOf(step.getStepIndex()));
+
+            // Step details are repeated in the PASSED/FAILED line, so this one is only needed when debugging
+            logger.debug("Executing Step: {} | Keyword: {} | Locator: {}='{}' | Data: '{}'",
+                    stepDescription, keyword, step.getLocatorStrategy(), step.getLocatorValue(), step.getTestData());
+
+            if (!step.hasKeyword()) {
+                logger.warn("Skipping step with empty keyword for TestCaseID: {} at row {}", testCaseID, step.getRowNum());
+                continue;
+            }
+
+            BrowserWatchdog.Event killReason = BrowserWatchdog.getKillReason();
+            if (killReason != null) {
+                // Budget ran out between steps, e.g. right after a WAIT_FOR_SECONDS step
+                result.fail(step.getStepIndex(), new IllegalStateException(killedMessage(killReason)));
+                logger.error("Step NOT RUN: {} - browser session was killed by the watchdog ({}).", stepDescription, killReason.getDescription());
+                break;
+            }
+
+            long stepStartNanos = System.nanoTime();
+            BrowserWatchdog.startStep();
+            Throwable cause = null;
+            try {
+                // Keyword method was bound by PlanValidator when the plan was loaded
+                step.getKeywordMethod().invoke(null, step.getLocatorStrategy(), step.getLocatorValue(), step.getTestData()); // null for static method
+            } catch (Exception e) { // Catches InvocationTargetException and others
+                // The actual exception from the keyword will be wrapped in InvocationTargetException
+                cause = e.getCause() != null ? e.getCause() : e;
+            }
+            long stepMs = elapsedMillis(stepStartNanos);
+            // Some keywords return normally although their browser was killed, e.g. CLOSE_BROWSER swallows errors
+            killReason = BrowserWatchdog.getKillReason();
+            if (killReason != null) {
+                cause = new IllegalStateException(killedMessage(killReason), cause);
+            }
+
+            if (cause == null) {
+                result.addStepResult(new CaseResult.StepResult(step.getStepIndex(), stepDescription, keyword, true, stepMs));
+                logger.atInfo()
+                        .addKeyValue("keyword", keyword)
+                        .addKeyValue("status", "PASSED")
+                        .addKeyValue("durationMs", stepMs)
+                        .log("Step PASSED: {} ({} ms)", stepDescription, stepMs);
+            } else {
+                result.addStepResult(new CaseResult.StepResult(step.getStepIndex(), stepDescription, keyword, false, stepMs));
+                result.fail(step.getStepIndex(), cause);
+                logger.atError()
+                        .addKeyValue("keyword", keyword)
+                        .addKeyValue("status", "FAILED")
+                        .addKeyValue("durationMs", stepMs)
+                        .setCause(cause)
+                        .log("Step FAILED: {} - Keyword '{}' execution failed. Error: {}", stepDescription, keyword, cause.getMessage());
+                break; // Stop executing further steps for this test case
+            }
+        }
+    }
+
+    /**
+     * @return The exception that failed browser startup, explaining when it was caused by a watchdog kill.
+     * Call it before {@link BrowserWatchdog#endCase()}.
+     */
+    static Exception startupFailure(Exception e) {
+        BrowserWatchdog.Event killReason = BrowserWatchdog.getKillReason();
+        return killReason == null ? e
+                : new IllegalStateException("Browser startup was killed by the watchdog (" + killReason.getDescription() + ").", e);
+    }
+
+    static String killedMessage(BrowserWatchdog.Event killReason) {
+        return "Browser session was killed by the watchdog (" + killReason.getDescription() + ").";
+    }
+
+    static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -1,14 +1,22 @@
 package com.bahmi.testcases;
 
 import Bahmi.BaseTest;
+import Bahmi.BrowserSession;
+import Bahmi.BrowserWatchdog;
 import com.bahmi.keyword.ActionKeywords;
+import com.bahmi.plan.PlanValidator;
+import com.bahmi.plan.TestPlan;
+import com.bahmi.plan.TestStep;
 import com.bahmi.utils.ExcelReader;
+import com.bahmi.utils.ExecutionJournal;
+import com.bahmi.utils.Fingerprints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.testng.Assert;
+import org.testng.ITestContext;
 import org.testng.annotations.*;
 
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,42 +25,104 @@ public class TestEngine {
     private static final Logger logger = LoggerFactory.getLogger(TestEngine.class);
     public ExcelReader testSuiteExcel;
     public ExcelReader testStepsExcel;
+    public TestPlan testPlan;
 
-    private static final String TEST_SUITE_PATH = "src/test/resources/testdata/TestSuite.xlsx";
-    private static final String TEST_CASES_SHEET = "TestCases";
-    private static final String TEST_STEPS_SHEET = "TestSteps";
+    static final String TEST_SUITE_PATH = "src/test/resources/testdata/TestSuite.xlsx";
+    static final String TEST_CASES_SHEET = "TestCases";
+    static final String TEST_STEPS_SHEET = "TestSteps";
 
-    // Column names from Excel (case-sensitive, ensure they match your Excel file)
-    private static final String COL_TEST_CASE_ID = "TestCaseID";
-    private static final String COL_RUN_MODE = "RunMode";
-    private static final String COL_STEP_KEYWORD = "Keyword";
-    private static final String COL_STEP_LOCATOR_STRATEGY = "LocatorStrategy";
-    private static final String COL_STEP_LOCATOR_VALUE = "LocatorValue";
-    private static final String COL_STEP_TEST_DATA = "TestData";
-    private static final String COL_STEP_DESCRIPTION = "StepDescription";
+    // Column names from Excel (case-sensitive, ensure they match your Excel file). TestSteps columns are in TestPlan.
+    static final String COL_TEST_CASE_ID = TestPlan.COL_TEST_CASE_ID;
+    static final String COL_RUN_MODE = "RunMode";
 
+    // Execution journal used to resume or narrow a run, e.g. -DexecutionMode=failed
+    static final String DEFAULT_JOURNAL_PATH = "test-journal/execution-journal.tsv";
+    // Results are streamed here as each test case finishes, e.g. -Dresults.dir=build/results
+    static final String DEFAULT_RESULTS_DIR = "target/results";
+    private static final String EXECUTION_MODE_ALL = "all";         // Every case with RunMode='Y'
+    private static final String EXECUTION_MODE_FAILED = "failed";   // Only cases that failed or never finished last time
+    private static final String EXECUTION_MODE_CHANGED = "changed"; // Skip cases unchanged since their last pass
+
+    private ExecutionJournal journal;
+    private String keywordCodeFingerprint;
+    private final RunMetrics runMetrics = new RunMetrics();
+    private StreamingResultWriter resultWriter;
+
+    /**
+     * @return Fingerprint of the keyword code and the browser handling it calls into,
+     * so -DexecutionMode=changed re-runs test cases after any of them was edited.
+     */
+    static String keywordCodeFingerprint() {
+        return Fingerprints.classFingerprint(ActionKeywords.class, BaseTest.class, BrowserSession.class, BrowserWatchdog.class);
+    }
 
     @BeforeSuite
-    public void setUpSuite() {
+    public void setUpSuite(ITestContext context) {
         logger.info("Test Suite Execution Started.");
+        configureParallelism(context);
+        // -DreuseBrowser=true keeps each thread's browser across test cases; the watchdog recycles it when needed
+        BaseTest.setReuseSession(Boolean.getBoolean("reuseBrowser"));
         try {
             testSuiteExcel = new ExcelReader(TEST_SUITE_PATH, TEST_CASES_SHEET);
 
-            testStepsExcel = new ExcelReader(TEST_SUITE_PATH, TEST_STEPS_SHEET);
+            testStepsExcel = testSuiteExcel.forSheet(TEST_STEPS_SHEET); // Same parsed workbook
+            testPlan = TestPlan.load(testStepsExcel, TEST_STEPS_SHEET, TestPlan.readDataSheets(testSuiteExcel));
         } catch (Exception e) {
             logger.error("Failed to initialize Excel readers in @BeforeSuite. Aborting tests.", e);
             throw new RuntimeException("CRITICAL: Failed to load test data Excel sheets. " + e.getMessage(), e);
         }
+        // Both log and throw their own errors naming the file that could not be opened
+        journal = new ExecutionJournal(System.getProperty("journal.path", DEFAULT_JOURNAL_PATH));
+        keywordCodeFingerprint = keywordCodeFingerprint();
+        resultWriter = new StreamingResultWriter(System.getProperty("results.dir", DEFAULT_RESULTS_DIR), context.getSuite().getName());
+        validatePlan();
     }
 
+    /**
+     * -DdataProviderThreadCount=N runs up to N test cases or data iterations at once, each with its own browser.
+     * Without it, the data-provider-thread-count of testng.xml applies.
+     */
+    private void configureParallelism(ITestContext context) {
+        String threadCount = System.getProperty("dataProviderThreadCount");
+        if (threadCount == null || threadCount.trim().isEmpty()) {
+            return;
+        }
+        try {
+            context.getSuite().getXmlSuite().setDataProviderThreadCount(Integer.parseInt(threadCount.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number format for dataProviderThreadCount: " + threadCount, e);
+        }
+        logger.info("Running up to {} test iterations in parallel.", threadCount);
+    }
+
+    /**
+     * Pre-flight validation of every step, so that typos in keywords, locators or data fail the run
+     * in seconds instead of when the step is reached.
+     */
+    private void validatePlan() {
+        List<String> problems = new PlanValidator().validate(testPlan);
+        if (!problems.isEmpty()) {
+            StringBuilder message = new StringBuilder("CRITICAL: Test plan validation failed with ")
+                    .append(problems.size()).append(" problem(s):");
+            for (String problem : problems) {
+                message.append(System.lineSeparator()).append("  - ").append(problem);
+                logger.error("Plan validation: {}", problem);
+            }
+            throw new RuntimeException(message.toString());
+        }
+        logger.info("Test plan validation passed.");
+    }
 
-    @DataProvider(name = "keywordDrivenTests")
+
+    @DataProvider(name = "keywordDrivenTests", parallel = true)
     public Object[][] getTestCasesToRun() {
         if (testSuiteExcel == null) {
             logger.error("testSuiteExcel is null in getTestCasesToRun. Cannot provide test data.");
             return new Object[0][0]; // Return empty if Excel setup failed
         }
-        List<String> testCasesToRun = new ArrayList<>();
+        String executionMode = System.getProperty("executionMode", EXECUTION_MODE_ALL).toLowerCase();
+        logger.info("Execution mode: {}", executionMode);
+        List<Object[]> testCasesToRun = new ArrayList<>();
         int testCasesRowCount = testSuiteExcel.getRowCount();
         logger.info("Total test cases found in '{}' sheet: {}", TEST_CASES_SHEET, testCasesRowCount);
 
@@ -65,106 +135,149 @@ public class TestEngine {
                 continue;
             }
             if ("Y".equalsIgnoreCase(runMode)) {
-                testCasesToRun.add(testCaseID);
-                logger.info("Test case '{}' marked for execution (RunMode='Y').", testCaseID);
+                int iterationCount = testPlan.getIterationCount(testCaseID);
+                if (iterationCount == 0) {
+                    addIfSelected(testCasesToRun, testCaseID, 0, executionMode);
+                } else {
+                    // Data-driven: one invocation per data row
+                    for (int iteration = 1; iteration <= iterationCount; iteration++) {
+                        addIfSelected(testCasesToRun, testCaseID, iteration, executionMode);
+                    }
+                }
             } else {
                 logger.info("Test case '{}' skipped (RunMode='{}').", testCaseID, runMode);
             }
         }
 
-        Object[][] data = new Object[testCasesToRun.size()][1];
-        for (int i = 0; i < testCasesToRun.size(); i++) {
-            data[i][0] = testCasesToRun.get(i);
+        logger.info("DataProvider will run {} test cases and iterations.", testCasesToRun.size());
+        return testCasesToRun.toArray(new Object[0][]);
+    }
+
+    private void addIfSelected(List<Object[]> testCasesToRun, String testCaseID, int iteration, String executionMode) {
+        if (isSelectedByExecutionMode(testCaseID, iteration, executionMode)) {
+            testCasesToRun.add(new Object[]{testCaseID, iteration});
+            logger.info("Test case '{}' marked for execution (RunMode='Y').", TestPlan.label(testCaseID, iteration));
         }
-        logger.info("DataProvider will run {} test cases.", testCasesToRun.size());
-        return data;
+    }
+
+    /**
+     * Applies the -DexecutionMode filter using the outcome of the previous runs recorded in the journal.
+     */
+    private boolean isSelectedByExecutionMode(String testCaseID, int iteration, String executionMode) {
+        String label = TestPlan.label(testCaseID, iteration);
+        ExecutionJournal.Entry previous = journal == null ? null : journal.getPreviousEntry(label);
+        switch (executionMode) {
+            case EXECUTION_MODE_FAILED:
+                // Iteration labels are data row positions, so a pass recorded for other data or steps does not count
+                if (passedWithSameFingerprint(previous, testCaseID, iteration)) {
+                    logger.info("Test case '{}' skipped (passed in previous run).", label);
+                    return false;
+                }
+                if (previous != null && previous.getStatus() == ExecutionJournal.Status.PASSED) {
+                    logger.info("Test case '{}' selected (passed in previous run, but its steps or data changed since).", label);
+                }
+                return true;
+            case EXECUTION_MODE_CHANGED:
+                if (passedWithSameFingerprint(previous, testCaseID, iteration)) {
+                    logger.info("Test case '{}' skipped (steps and keyword code unchanged since last pass).", label);
+                    return false;
+                }
+                return true;
+            case EXECUTION_MODE_ALL:
+                return true;
+            default:
+                logger.warn("Unknown executionMode '{}'. Running all test cases with RunMode='Y'.", executionMode);
+                return true;
+        }
+    }
+
+    private boolean passedWithSameFingerprint(ExecutionJournal.Entry previous, String testCaseID, int iteration) {
+        return previous != null && previous.getStatus() == ExecutionJournal.Status.PASSED
+                && previous.getFingerprint().equals(getTestCaseFingerprint(testCaseID, iteration));
+    }
+
+    /**
+     * @return Fingerprint over the iteration's resolved step rows and the bytecode of ActionKeywords, BaseTest,
+     * BrowserSession and BrowserWatchdog ({@link #keywordCodeFingerprint()}).
+     */
+    private String getTestCaseFingerprint(String testCaseID, int iteration) {
+        return testPlan.getFingerprint(testCaseID, iteration, keywordCodeFingerprint);
     }
 
 
     @Test(dataProvider = "keywordDrivenTests")
-    public void executeTestCase(String testCaseID) {
+    public void executeTestCase(String testCaseID, int iteration) {
+        String label = TestPlan.label(testCaseID, iteration);
+        MDC.put(TestCaseExecutor.MDC_CASE_ID, label); // Removed in tearDownTestMethod
         logger.info("================================================================================");
-        logger.info("EXECUTING TEST CASE: {}", testCaseID);
+        logger.info("EXECUTING TEST CASE: {}", label);
         logger.info("================================================================================");
-        boolean testCaseResult = true; // Assume pass until a step fails
+        long startNanos = System.nanoTime();
+        String fingerprint = getTestCaseFingerprint(testCaseID, iteration);
+        journal.recordStarted(label, fingerprint);
+        BrowserWatchdog.startCase(label); // Before the browser starts, so a hanging startup is killed too
         try {
+            BrowserWatchdog.startStep(); // Browser startup also gets the step budget
             BaseTest.initializeDriver();
             ActionKeywords.setDriver(BaseTest.getDriver()); // Pass driver to ActionKeywords
         } catch (Exception e) {
-            logger.error("CRITICAL FAILURE: WebDriver initialization failed for test case: {}. Error: {}", testCaseID, e.getMessage(), e);
-            Assert.fail("WebDriver initialization failed for " + testCaseID, e);
+            Exception failure = TestCaseExecutor.startupFailure(e);
+            BrowserWatchdog.endCase();
+            logger.error("CRITICAL FAILURE: WebDriver initialization failed for test case: {}. Error: {}", label, failure.getMessage(), failure);
+            long durationMs = TestCaseExecutor.elapsedMillis(startNanos);
+            CaseResult failed = CaseResult.failedBeforeSteps(testCaseID, failure, durationMs);
+            runMetrics.record(failed);
+            resultWriter.record(label, failed);
+            journal.recordFinished(label, false, 0, durationMs, fingerprint);
+            Assert.fail("WebDriver initialization failed for " + label, failure);
             return; // Stop further execution of this test case
         }
 
-        int testStepsRowCount = testStepsExcel.getRowCount();
-        boolean stepsFound = false;
-
-        for (int i = 1; i <= testStepsRowCount; i++) { // Starts from 1 as row 0 is header
-            String currentTestCaseIDStep = testStepsExcel.getCellData(i, COL_TEST_CASE_ID);
-
-            if (testCaseID.equalsIgnoreCase(currentTestCaseIDStep)) {
-                stepsFound = true;
-                String stepDescription = testStepsExcel.getCellData(i, COL_STEP_DESCRIPTION);
-                String keyword = testStepsExcel.getCellData(i, COL_STEP_KEYWORD);
-                String locatorStrategy = testStepsExcel.getCellData(i, COL_STEP_LOCATOR_STRATEGY);
-                String locatorValue = testStepsExcel.getCellData(i, COL_STEP_LOCATOR_VALUE);
-                String testData = testStepsExcel.getCellData(i, COL_STEP_TEST_DATA);
-
-                logger.info("Executing Step: {} | Keyword: {} | Locator: {}='{}' | Data: '{}'",
-                        stepDescription, keyword, locatorStrategy, locatorValue, testData);
-
-                if (keyword == null || keyword.trim().isEmpty()) {
-                    logger.warn("Skipping step with empty keyword for TestCaseID: {} at row {}", testCaseID, i);
-                    continue;
-                }
-
-                try {
-                    // Using Java Reflection to call keyword methods
-                    Method method = ActionKeywords.class.getMethod(keyword.toUpperCase(), String.class, String.class, String.class);
-                    method.invoke(null, locatorStrategy, locatorValue, testData); // null for static method
-                    logger.info("Step PASSED: {}", stepDescription);
-                } catch (NoSuchMethodException e) {
-                    testCaseResult = false;
-                    logger.error("Step FAILED: {} - Keyword '{}' not found in ActionKeywords.class. Ensure method exists and has correct signature (String, String, String).", stepDescription, keyword, e);
-                    break; // Stop executing further steps for this test case
-                } catch (Exception e) { // Catches InvocationTargetException and others
-                    testCaseResult = false;
-                    // The actual exception from the keyword will be wrapped in InvocationTargetException
-                    Throwable cause = e.getCause() != null ? e.getCause() : e;
-                    logger.error("Step FAILED: {} - Keyword '{}' execution failed. Error: {}", stepDescription, keyword, cause.getMessage(), cause);
-                    break; // Stop executing further steps for this test case
-                }
-            }
-        }
-
-        if (!stepsFound) {
+        List<TestStep> steps = testPlan.getSteps(testCaseID, iteration);
+        if (steps.isEmpty()) {
             logger.warn("No steps found for TestCaseID: {} in TestSteps sheet.", testCaseID);
             // Decide if this is a failure or just a warning
             // Assert.fail("No steps found for TestCaseID: " + testCaseID);
         }
 
-        if (!testCaseResult) {
-            Assert.fail("Test Case '" + testCaseID + "' FAILED. Check logs for details.");
+        CaseResult result;
+        try {
+            result = TestCaseExecutor.execute(testCaseID, label, steps);
+        } finally {
+            BrowserWatchdog.endCase(); // Clears a kill's interrupt before the journal and results are written
+        }
+
+        runMetrics.record(result);
+        resultWriter.record(label, result);
+        journal.recordFinished(label, result.isPassed(), result.getFailedStep(), TestCaseExecutor.elapsedMillis(startNanos), fingerprint);
+        if (!result.isPassed()) {
+            Assert.fail("Test Case '" + label + "' FAILED. Check logs for details.");
         } else {
-            logger.info("Test Case '{}' PASSED.", testCaseID);
+            logger.info("Test Case '{}' PASSED.", label);
         }
         logger.info("--------------------------------------------------------------------------------");
     }
 
     @AfterMethod
     public void tearDownTestMethod(org.testng.ITestResult result) {
-        logger.info("Finished executing Test Case: {}", result.getMethod().getMethodName() + " with parameters " + result.getParameters()[0]);
+        String label = MDC.get(TestCaseExecutor.MDC_CASE_ID);
+        logger.debug("Finished executing Test Case: {} with parameters {}", result.getMethod().getMethodName(), result.getParameters());
+        if (BaseTest.isSessionKilled()) {
+            logger.warn("Browser of test case {} was killed by the watchdog for exceeding its time budget. It will be replaced.", label);
+        }
         if (BaseTest.checkDriver() != null) { // Check if driver was initialized
-            BaseTest.quitDriver();
-            logger.info("Browser closed after test case: {}", result.getParameters()[0]);
+            BaseTest.releaseDriver(); // Quits, or keeps the browser for the next test case with -DreuseBrowser=true
+            logger.debug("Browser released after test case: {}", label);
         } else {
-            logger.warn("Driver was null at the end of test case: {}. Browser might not have been initialized or already closed.", result.getParameters()[0]);
+            logger.warn("Driver was null at the end of test case: {}. Browser might not have been initialized or already closed.", label);
         }
+        MDC.remove(TestCaseExecutor.MDC_CASE_ID);
     }
 
     @AfterSuite
     public void tearDownSuite() {
         logger.info("Test Suite Execution Finished.");
+        runMetrics.logSummary();
         // Close Excel workbooks if they are open
         if (testSuiteExcel != null) {
             testSuiteExcel.closeWorkbook();
@@ -172,6 +285,13 @@ public class TestEngine {
         if (testStepsExcel != null) {
             testStepsExcel.closeWorkbook();
         }
-        // BaseTest.quitDriver(); // If driver is managed per suite, quit here. We are doing per method.
+        if (journal != null) {
+            journal.close();
+        }
+        if (resultWriter != null) {
+            resultWriter.close();
+        }
+        // Browsers kept open by -DreuseBrowser=true belong to the data provider threads
+        BaseTest.quitAllDrivers();
     }
 }
\ No newline at end of file
@@ -0,0 +1,335 @@
+package com.bahmi.testcases;
+
+import Bahmi.BaseTest;
+import Bahmi.BrowserWatchdog;
+import com.bahmi.keyword.ActionKeywords;
+import com.bahmi.plan.PlanValidator;
+import com.bahmi.plan.TestPlan;
+import com.bahmi.utils.ExcelReader;
+import com.bahmi.utils.ExecutionJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-running alternative to the TestNG suite for writing test cases.
+ * Keeps the JVM and one browser session open, watches TestSuite.xlsx and, on every save,
+ * re-runs only the RunMode='Y' test cases and data-driven iterations whose resolved steps changed.
+ *
+ * <pre>mvn test-compile exec:java</pre>
+ */
+public class WatchRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WatchRunner.class);
+
+    // Excel writes a workbook in several file system events; wait for them to settle before reloading
+    private static final long DEBOUNCE_MILLIS = 500;
+    private static final int RELOAD_ATTEMPTS = 3;
+
+    private final Path workbookPath;
+    private final ExecutionJournal journal;
+    private final String keywordCodeFingerprint;
+
+    /**
+     * One runnable test case, or one iteration of a data-driven test case, with the fingerprint of its resolved steps.
+     */
+    private static class Iteration {
+        private final String testCaseID;
+        private final int iteration;
+        private final String fingerprint;
+
+        Iteration(String testCaseID, int iteration, String fingerprint) {
+            this.testCaseID = testCaseID;
+            this.iteration = iteration;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private String testCasesSheetFingerprint;
+    private String testStepsSheetFingerprint;
+    private Map<String, String> dataSheetFingerprints = new HashMap<>(); // Data sheet name -> fingerprint
+    private TestPlan testPlan;
+    private Map<String, String> runnableTestCases = new LinkedHashMap<>(); // Upper-cased ID -> ID as written
+    private Map<String, Iteration> runnableIterations = new LinkedHashMap<>(); // Upper-cased label -> iteration
+
+    public WatchRunner(Path workbookPath, ExecutionJournal journal) {
+        this.workbookPath = workbookPath;
+        this.journal = journal;
+        this.keywordCodeFingerprint = TestEngine.keywordCodeFingerprint();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path workbookPath = Paths.get(args.length > 0 ? args[0] : TestEngine.TEST_SUITE_PATH).toAbsolutePath();
+        ExecutionJournal journal = new ExecutionJournal(System.getProperty("journal.path", TestEngine.DEFAULT_JOURNAL_PATH));
+        BaseTest.setReuseSession(true);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            BaseTest.quitAllDrivers(); // The browser belongs to the main thread, not this hook
+            journal.close();
+        }, "watch-runner-shutdown"));
+
+        WatchRunner runner = new WatchRunner(workbookPath, journal);
+        try {
+            if (!runner.reload()) {
+                logger.warn("Initial load of {} failed validation. Fix the workbook and save it to retry.", workbookPath);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Initial load of {} failed: {}. Save the workbook to retry.", workbookPath, e.getMessage());
+        }
+        runner.ensureDriver();
+        runner.watch();
+    }
+
+    /**
+     * Blocks, reloading the workbook and re-running changed test cases on every save.
+     */
+    public void watch() throws IOException, InterruptedException {
+        Path directory = workbookPath.getParent();
+        String fileName = workbookPath.getFileName().toString();
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            logger.info("Watching {} for changes. Press Ctrl+C to stop.", workbookPath);
+
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean workbookChanged = containsWorkbookEvent(key, fileName);
+                key.reset();
+                if (!workbookChanged) {
+                    continue;
+                }
+
+                // Drain the burst of events produced by a single save
+                WatchKey next;
+                while ((next = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    next.pollEvents();
+                    next.reset();
+                }
+
+                for (Iteration iteration : reloadWithRetry()) {
+                    runIteration(iteration);
+                }
+                logger.info("Watching {} for changes.", workbookPath);
+            }
+        } catch (ClosedWatchServiceException e) {
+            logger.info("Watch service closed. Stopping watch mode.");
+        }
+    }
+
+    private static boolean containsWorkbookEvent(WatchKey key, String fileName) {
+        boolean found = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            // Excel's owner lock file (~$TestSuite.xlsx) is created next to the workbook; ignore it
+            if (context instanceof Path && fileName.equals(context.toString())) {
+                found = true;
+            }
+        }
+        return found;
+    }
+
+    private List<Iteration> reloadWithRetry() throws InterruptedException {
+        for (int attempt = 1; attempt <= RELOAD_ATTEMPTS; attempt++) {
+            Map<String, Iteration> previousIterations = runnableIterations;
+            try {
+                if (!reload()) {
+                    return new ArrayList<>(); // Validation failed; problems already logged
+                }
+                return changedIterations(previousIterations);
+            } catch (RuntimeException e) {
+                // Most often the workbook is still being written
+                logger.warn("Reload attempt {} of {} failed: {}", attempt, RELOAD_ATTEMPTS, e.getMessage());
+                Thread.sleep(DEBOUNCE_MILLIS);
+            }
+        }
+        logger.error("Could not reload {} after {} attempts. Waiting for the next save.", workbookPath, RELOAD_ATTEMPTS);
+        return new ArrayList<>();
+    }
+
+    /**
+     * Reads the workbook and rebuilds the test plan if the TestCases, TestSteps or any data sheet changed
+     * since the last load.
+     *
+     * @return false if the new test plan failed validation; the previous state is then kept.
+     */
+    boolean reload() {
+        ExcelReader testCasesExcel = null;
+        try {
+            testCasesExcel = new ExcelReader(workbookPath.toString(), TestEngine.TEST_CASES_SHEET);
+            ExcelReader testStepsExcel = testCasesExcel.forSheet(TestEngine.TEST_STEPS_SHEET); // Same parsed workbook
+            String newTestCasesFingerprint = testCasesExcel.getSheetFingerprint();
+            String newTestStepsFingerprint = testStepsExcel.getSheetFingerprint();
+            Map<String, String> dataSheets = TestPlan.readDataSheets(testCasesExcel);
+            Map<String, String> newDataSheetFingerprints = fingerprintDataSheets(testCasesExcel, dataSheets.values());
+            boolean testCasesChanged = !newTestCasesFingerprint.equals(testCasesSheetFingerprint);
+            boolean testStepsChanged = !newTestStepsFingerprint.equals(testStepsSheetFingerprint);
+            boolean dataSheetsChanged = !newDataSheetFingerprints.equals(dataSheetFingerprints);
+            if (!testCasesChanged && !testStepsChanged && !dataSheetsChanged) {
+                logger.info("No changes in sheets '{}', '{}' or data sheets {}.", TestEngine.TEST_CASES_SHEET,
+                        TestEngine.TEST_STEPS_SHEET, newDataSheetFingerprints.keySet());
+                return true;
+            }
+
+            long startNanos = System.nanoTime();
+            TestPlan newPlan = TestPlan.load(testStepsExcel, TestEngine.TEST_STEPS_SHEET, dataSheets);
+            List<String> problems = new PlanValidator().validate(newPlan);
+            if (!problems.isEmpty()) {
+                for (String problem : problems) {
+                    logger.error("Plan validation: {}", problem);
+                }
+                logger.error("Test plan has {} problem(s). Not running any test case until they are fixed.", problems.size());
+                return false;
+            }
+            logger.info("Test plan reloaded and validated in {} ms.", TestCaseExecutor.elapsedMillis(startNanos));
+            if (testCasesChanged) {
+                runnableTestCases = readRunnableTestCases(testCasesExcel);
+                logger.info("Sheet '{}' reloaded: {} test cases with RunMode='Y'.", TestEngine.TEST_CASES_SHEET, runnableTestCases.size());
+            }
+
+            testPlan = newPlan;
+            Map<String, Iteration> iterations = new LinkedHashMap<>();
+            for (String testCaseID : runnableTestCases.values()) {
+                int iterationCount = testPlan.getIterationCount(testCaseID);
+                for (int iteration = iterationCount == 0 ? 0 : 1; iteration <= iterationCount; iteration++) {
+                    iterations.put(TestPlan.label(testCaseID, iteration).toUpperCase(), new Iteration(testCaseID, iteration,
+                            testPlan.getFingerprint(testCaseID, iteration, keywordCodeFingerprint)));
+                }
+            }
+            runnableIterations = iterations;
+            testCasesSheetFingerprint = newTestCasesFingerprint;
+            testStepsSheetFingerprint = newTestStepsFingerprint;
+            dataSheetFingerprints = newDataSheetFingerprints;
+            return true;
+        } finally {
+            if (testCasesExcel != null) {
+                testCasesExcel.closeWorkbook();
+            }
+        }
+    }
+
+    /**
+     * @return Fingerprint per data sheet name; a missing sheet gets an empty fingerprint and is reported by the plan.
+     */
+    private static Map<String, String> fingerprintDataSheets(ExcelReader workbookExcel, Collection<String> dataSheetNames) {
+        Map<String, String> fingerprints = new HashMap<>();
+        for (String dataSheetName : dataSheetNames) {
+            if (fingerprints.containsKey(dataSheetName)) {
+                continue; // Shared by several test cases
+            }
+            String fingerprint;
+            try {
+                fingerprint = workbookExcel.forSheet(dataSheetName).getSheetFingerprint();
+            } catch (IllegalArgumentException e) {
+                fingerprint = "";
+            }
+            fingerprints.put(dataSheetName, fingerprint);
+        }
+        return fingerprints;
+    }
+
+    private static Map<String, String> readRunnableTestCases(ExcelReader testCasesExcel) {
+        Map<String, String> runnable = new LinkedHashMap<>();
+        for (int i = 1; i <= testCasesExcel.getRowCount(); i++) {
+            String testCaseID = testCasesExcel.getCellData(i, TestEngine.COL_TEST_CASE_ID);
+            if (!testCaseID.isEmpty() && "Y".equalsIgnoreCase(testCasesExcel.getCellData(i, TestEngine.COL_RUN_MODE))) {
+                runnable.put(testCaseID.toUpperCase(), testCaseID);
+            }
+        }
+        return runnable;
+    }
+
+    /**
+     * @return Runnable test cases and iterations that are new, newly set to RunMode='Y', or whose resolved steps changed.
+     */
+    private List<Iteration> changedIterations(Map<String, Iteration> previousIterations) {
+        List<Iteration> changed = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        for (Map.Entry<String, Iteration> entry : runnableIterations.entrySet()) {
+            Iteration previous = previousIterations.get(entry.getKey());
+            if (previous == null || !previous.fingerprint.equals(entry.getValue().fingerprint)) {
+                changed.add(entry.getValue());
+                labels.add(TestPlan.label(entry.getValue().testCaseID, entry.getValue().iteration));
+            }
+        }
+        logger.info("Changed test cases to re-run: {}", labels);
+        return changed;
+    }
+
+    /**
+     * Makes sure the shared browser session is open and still answering, replacing it if not.
+     */
+    void ensureDriver() {
+        if (!BaseTest.isDriverResponsive()) {
+            BaseTest.quitDriver();
+            BaseTest.initializeDriver();
+        }
+        ActionKeywords.setDriver(BaseTest.getDriver());
+    }
+
+    private void runIteration(Iteration iteration) {
+        String label = TestPlan.label(iteration.testCaseID, iteration.iteration);
+        MDC.put(TestCaseExecutor.MDC_CASE_ID, label);
+        try {
+            runIteration(iteration, label);
+        } finally {
+            MDC.remove(TestCaseExecutor.MDC_CASE_ID);
+        }
+    }
+
+    private void runIteration(Iteration iteration, String label) {
+        logger.info("================================================================================");
+        logger.info("RE-RUNNING TEST CASE: {}", label);
+        logger.info("================================================================================");
+        journal.recordStarted(label, iteration.fingerprint);
+        long startNanos = System.nanoTime();
+        BrowserWatchdog.startCase(label); // Before the browser is checked or replaced, so a hanging startup is killed too
+        try {
+            BrowserWatchdog.startStep();
+            ensureDriver();
+        } catch (Exception e) {
+            Exception failure = TestCaseExecutor.startupFailure(e);
+            BrowserWatchdog.endCase();
+            logger.error("CRITICAL FAILURE: WebDriver initialization failed for test case: {}. Error: {}", label, failure.getMessage(), failure);
+            journal.recordFinished(label, false, 0, TestCaseExecutor.elapsedMillis(startNanos), iteration.fingerprint);
+            return;
+        }
+
+        CaseResult result;
+        try {
+            result = TestCaseExecutor.execute(iteration.testCaseID, label,
+                    testPlan.getSteps(iteration.testCaseID, iteration.iteration));
+        } finally {
+            BrowserWatchdog.endCase();
+        }
+        BaseTest.releaseDriver();
+        journal.recordFinished(label, result.isPassed(), result.getFailedStep(), TestCaseExecutor.elapsedMillis(startNanos),
+                iteration.fingerprint);
+        logStepTimings(label, result);
+        logger.info("--------------------------------------------------------------------------------");
+    }
+
+    private static void logStepTimings(String label, CaseResult result) {
+        logger.info("Step timings for test case '{}':", label);
+        for (CaseResult.StepResult step : result.getStepResults()) {
+            logger.info("  {}. {} [{}] {} ms{}", step.getStepIndex(), step.getDescription(), step.getKeyword(),
+                    step.getDurationMs(), step.isPassed() ? "" : " FAILED");
+        }
+        logger.info("Test Case '{}' {} in {} ms.", label, result.isPassed() ? "PASSED" : "FAILED", result.getDurationMs());
+    }
+}
@@ -8,7 +8,9 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 
@@ -19,6 +21,7 @@ public class ExcelReader {
     private Sheet sheet;
     private String filePath;
     private String sheetName;
+    private boolean ownsWorkbook = true;
 
     public ExcelReader(String filePath, String sheetName){
         this.filePath= filePath;
@@ -43,6 +46,26 @@ public class ExcelReader {
             throw new RuntimeException("Error reading excel file:"+ filePath,e);
         }
     }
+    private ExcelReader(ExcelReader source, String sheetName) {
+        this.filePath = source.filePath;
+        this.sheetName = sheetName;
+        this.workbook = source.workbook;
+        this.ownsWorkbook = false;
+        this.sheet = workbook.getSheet(sheetName);
+        if (sheet == null) {
+            logger.error("Sheet '{}' not found in the work book '{}'", sheetName, filePath);
+            throw new IllegalArgumentException("Sheet '" + sheetName + "' not found in the workbook '" + filePath + "'.");
+        }
+    }
+
+    /**
+     * Reads another sheet of the already parsed workbook, without reading the file again.
+     * The returned reader shares the workbook: close the reader that opened it, not this one.
+     */
+    public ExcelReader forSheet(String sheetName) {
+        return new ExcelReader(this, sheetName);
+    }
+
     /**
      * @return The number of data rows.
      */
@@ -77,15 +100,7 @@ public class ExcelReader {
             return "";
         }
 
-        int colNum = -1;
-        for (Cell cell : headerRow) {
-            if (cell.getCellType() == CellType.STRING &&
-                    columnName.trim().equalsIgnoreCase(cell.getStringCellValue().trim())) {
-                colNum = cell.getColumnIndex();
-                break;
-            }
-        }
-
+        int colNum = findColumn(headerRow, columnName);
         if (colNum == -1) {
             logger.warn("Column '{}' not found in sheet '{}'", columnName, sheetName);
             return "";
@@ -94,6 +109,25 @@ public class ExcelReader {
         return getCellData(rowNum, colNum);
     }
 
+    /**
+     * @return true if the header row has the column (case-insensitive). Lets callers skip optional columns
+     * without a "not found" warning per row.
+     */
+    public boolean hasColumn(String columnName) {
+        Row headerRow = sheet == null ? null : sheet.getRow(0);
+        return headerRow != null && findColumn(headerRow, columnName) != -1;
+    }
+
+    private static int findColumn(Row headerRow, String columnName) {
+        for (Cell cell : headerRow) {
+            if (cell.getCellType() == CellType.STRING &&
+                    columnName.trim().equalsIgnoreCase(cell.getStringCellValue().trim())) {
+                return cell.getColumnIndex();
+            }
+        }
+        return -1;
+    }
+
     /**
      * @param rowNum The row number (0-based).
      * @param colNum The column index (0-based).
@@ -187,8 +221,25 @@ public class ExcelReader {
     }
 
 
+    /**
+     * @return Fingerprint of every cell value in the sheet, used to detect which sheets changed between loads.
+     */
+    public String getSheetFingerprint() {
+        List<String> values = new ArrayList<>();
+        if (sheet == null) return Fingerprints.fingerprint(values);
+        for (int rowNum = 0; rowNum <= sheet.getLastRowNum(); rowNum++) {
+            Row row = sheet.getRow(rowNum);
+            int lastCellNum = row == null ? 0 : row.getLastCellNum();
+            for (int colNum = 0; colNum < lastCellNum; colNum++) {
+                values.add(getCellData(rowNum, colNum));
+            }
+            values.add("\n"); // Row boundary
+        }
+        return Fingerprints.fingerprint(values);
+    }
+
     public void closeWorkbook() {
-        if (workbook != null) {
+        if (workbook != null && ownsWorkbook) {
             try {
                 workbook.close();
                 logger.info("Workbook '{}' closed successfully.", filePath);
@@ -0,0 +1,180 @@
+package com.bahmi.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Journal of test case outcomes, kept across runs.
+ * Each line is tab separated: timestamp, TestCaseID, status, failed step index, duration (ms) and fingerprint.
+ * Records are appended during a run and flushed as soon as they are written, so a killed JVM still leaves the
+ * journal usable; a case that was STARTED but never finished is treated as not passed on the next run.
+ * When opened, the journal is compacted to the latest line per test case, so it does not grow across runs.
+ */
+public class ExecutionJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionJournal.class);
+    private static final String SEPARATOR = "\t";
+
+    public enum Status { STARTED, PASSED, FAILED }
+
+    /**
+     * Last known state of a test case as read from the journal.
+     */
+    public static class Entry {
+        private final String testCaseID;
+        private final Status status;
+        private final int failedStep;
+        private final long durationMs;
+        private final String fingerprint;
+
+        Entry(String testCaseID, Status status, int failedStep, long durationMs, String fingerprint) {
+            this.testCaseID = testCaseID;
+            this.status = status;
+            this.failedStep = failedStep;
+            this.durationMs = durationMs;
+            this.fingerprint = fingerprint;
+        }
+
+        public String getTestCaseID() { return testCaseID; }
+        public Status getStatus() { return status; }
+        public int getFailedStep() { return failedStep; }
+        public long getDurationMs() { return durationMs; }
+        public String getFingerprint() { return fingerprint; }
+    }
+
+    private final Path journalPath;
+    private final Map<String, Entry> previousEntries = new HashMap<>();
+    private BufferedWriter writer;
+
+    /**
+     * @param journalPath Path of the journal file. It is created (with parent directories) if missing.
+     */
+    public ExecutionJournal(String journalPath) {
+        this.journalPath = Paths.get(journalPath);
+        try {
+            if (this.journalPath.getParent() != null) {
+                Files.createDirectories(this.journalPath.getParent());
+            }
+            if (Files.exists(this.journalPath)) {
+                loadPreviousEntries();
+            }
+            writer = Files.newBufferedWriter(this.journalPath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            logger.info("Execution journal opened: {} ({} test cases known from previous runs)", journalPath, previousEntries.size());
+        } catch (IOException e) {
+            logger.error("Error opening execution journal: {}. Error: {}", journalPath, e.getMessage(), e);
+            throw new RuntimeException("Error opening execution journal: " + journalPath, e);
+        }
+    }
+
+    private void loadPreviousEntries() throws IOException {
+        Map<String, String> latestLines = new LinkedHashMap<>();
+        int lineCount = 0;
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNum = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNum++;
+                lineCount++;
+                String[] fields = line.split(SEPARATOR, -1);
+                if (fields.length < 6) {
+                    // Typically the last line of a journal whose JVM was killed mid-write
+                    logger.warn("Ignoring incomplete journal line {} in {}", lineNum, journalPath);
+                    continue;
+                }
+                try {
+                    Entry entry = new Entry(fields[1], Status.valueOf(fields[2]),
+                            Integer.parseInt(fields[3]), Long.parseLong(fields[4]), fields[5]);
+                    previousEntries.put(entry.getTestCaseID(), entry); // Later lines win
+                    latestLines.put(entry.getTestCaseID(), line);
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Ignoring malformed journal line {} in {}: {}", lineNum, journalPath, e.getMessage());
+                }
+            }
+        }
+        if (lineCount > latestLines.size()) {
+            compact(latestLines.values(), lineCount);
+        }
+    }
+
+    /**
+     * Rewrites the journal with only the given lines. Written to a temporary file first,
+     * so a crash while compacting leaves the old journal in place.
+     */
+    private void compact(Iterable<String> lines, int previousLineCount) throws IOException {
+        Path compacted = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+        Files.write(compacted, lines, StandardCharsets.UTF_8);
+        try {
+            Files.move(compacted, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(compacted, journalPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        logger.info("Execution journal compacted from {} to {} lines.", previousLineCount, previousEntries.size());
+    }
+
+    /**
+     * @return The last entry recorded for the test case before this run, or null if it never ran.
+     */
+    public Entry getPreviousEntry(String testCaseID) {
+        return previousEntries.get(testCaseID);
+    }
+
+    public void recordStarted(String testCaseID, String fingerprint) {
+        append(testCaseID, Status.STARTED, 0, 0, fingerprint);
+    }
+
+    /**
+     * @param failedStep 1-based index of the failed step within the test case, or 0 if no step failed.
+     */
+    public void recordFinished(String testCaseID, boolean passed, int failedStep, long durationMs, String fingerprint) {
+        append(testCaseID, passed ? Status.PASSED : Status.FAILED, failedStep, durationMs, fingerprint);
+    }
+
+    private synchronized void append(String testCaseID, Status status, int failedStep, long durationMs, String fingerprint) {
+        if (writer == null) {
+            logger.warn("Execution journal is closed. Not recording {} for test case: {}", status, testCaseID);
+            return;
+        }
+        try {
+            writer.write(Instant.now() + SEPARATOR + sanitize(testCaseID) + SEPARATOR + status + SEPARATOR
+                    + failedStep + SEPARATOR + durationMs + SEPARATOR + fingerprint);
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            // A broken journal must not fail the test run itself
+            logger.error("Error writing to execution journal: {}. Error: {}", journalPath, e.getMessage(), e);
+        }
+    }
+
+    public synchronized void close() {
+        if (writer != null) {
+            try {
+                writer.close();
+                logger.info("Execution journal '{}' closed successfully.", journalPath);
+            } catch (IOException e) {
+                logger.error("Error closing execution journal '{}'. Error: {}", journalPath, e.getMessage(), e);
+            } finally {
+                writer = null;
+            }
+        }
+    }
+
+    private static String sanitize(String value) {
+        return value == null ? "" : value.replaceAll("[\\t\\r\\n]", " ");
+    }
+}
@@ -0,0 +1,82 @@
+package com.bahmi.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 fingerprints used to detect changes in sheets, test cases and keyword code between runs.
+ */
+public class Fingerprints {
+
+    private static final Logger logger = LoggerFactory.getLogger(Fingerprints.class);
+
+    private Fingerprints() {
+    }
+
+    /**
+     * @return Hex SHA-256 digest of the given values, separated so that ("ab","c") and ("a","bc") differ.
+     */
+    public static String fingerprint(Iterable<String> values) {
+        MessageDigest digest = newDigest();
+        for (String value : values) {
+            digest.update((value == null ? "" : value).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * @return Hex SHA-256 digest of the compiled bytecode of the classes and their nested classes,
+     * used to detect keyword code changes. Missing bytecode is logged and left out.
+     */
+    public static String classFingerprint(Class<?>... classes) {
+        MessageDigest digest = newDigest();
+        for (Class<?> clazz : classes) {
+            updateWithBytecode(digest, clazz);
+        }
+        return toHex(digest.digest());
+    }
+
+    private static void updateWithBytecode(MessageDigest digest, Class<?> clazz) {
+        String resource = clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1) + ".class";
+        try (InputStream in = clazz.getResourceAsStream(resource)) {
+            if (in == null) {
+                logger.warn("Bytecode for class {} not found. Keyword code changes cannot be detected.", clazz.getName());
+                return;
+            }
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            logger.warn("Error reading bytecode for class {}: {}", clazz.getName(), e.getMessage());
+        }
+        digest.update((byte) 0);
+        for (Class<?> nested : clazz.getDeclaredClasses()) {
+            updateWithBytecode(digest, nested);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available in this JVM", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}